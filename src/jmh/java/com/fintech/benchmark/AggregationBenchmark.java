@@ -0,0 +1,86 @@
+package com.fintech.benchmark;
+
+import com.fintech.aggregation.TransactionAggregateStore;
+import com.fintech.dto.AccountSummaryDTO;
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.dto.TransactionSummaryDTO;
+import com.fintech.entity.Transaction;
+import com.fintech.enums.Category;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-Java grouping behind the unfiltered summaries: consumers adding saved transactions to
+ * {@link TransactionAggregateStore}, concurrently, and the summary endpoints reading it back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+    private static final int TRANSACTIONS = 1 << 16;
+
+    @Param({"1000", "100000"})
+    private int accounts;
+
+    private TransactionAggregateStore aggregateStore;
+    private Transaction[] transactions;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() {
+        RawTransactionDTO[] raw = BenchmarkData.transactions(TRANSACTIONS, 1000, accounts, 11);
+        Category[] categories = Category.values();
+
+        transactions = new Transaction[raw.length];
+        for (int i = 0; i < raw.length; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setAccountNumber(raw[i].getAccountNumber());
+            transaction.setAmount(raw[i].getAmount());
+            transaction.setCategory(categories[i % categories.length]);
+            transactions[i] = transaction;
+        }
+
+        // Not rebuilt from the database, so the repository is never used
+        aggregateStore = new TransactionAggregateStore(null, true);
+        for (Transaction transaction : transactions) {
+            aggregateStore.record(transaction);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void record(Cursor cursor) {
+        aggregateStore.record(transactions[cursor.next++ & (TRANSACTIONS - 1)]);
+    }
+
+    @Benchmark
+    public List<TransactionSummaryDTO> summarizeByCategory() {
+        return aggregateStore.summarizeByCategory();
+    }
+
+    @Benchmark
+    public List<AccountSummaryDTO> summarizeByAccount() {
+        return aggregateStore.summarizeByAccount();
+    }
+}
@@ -0,0 +1,103 @@
+package com.fintech.benchmark;
+
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.enums.SourceType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded, repeatable transactions shaped like the feeds we ingest: card purchases at a long tail of
+ * merchants and branches, debit orders, salaries and transfers, and bank fees. A few descriptions
+ * account for most transactions, as they do in practice.
+ */
+final class BenchmarkData {
+
+    private static final String[] CARD_MERCHANTS = {
+            "Woolworths", "Checkers", "Pick n Pay", "Spar", "Shell V-Power", "Engen", "BP Express", "Sasol",
+            "Uber Trip", "Bolt Ride", "Nando's", "McDonald's", "KFC", "Steers", "Mugg & Bean", "Vida e Caffe",
+            "Mr Price", "Edgars", "Takealot.com", "Dis-Chem", "Clicks", "Netflix.com", "Spotify", "Apple.com/bill"
+    };
+    private static final String[] BRANCHES = {
+            "Sandton", "Rosebank", "Menlyn", "Canal Walk", "Gateway", "V&A Waterfront", "Fourways", "Eastgate"
+    };
+    private static final String[] DEBIT_ORDER_PROVIDERS = {
+            "Discovery Health", "Old Mutual Life", "Outsurance Car", "DSTV Premium", "City of Cape Town",
+            "City Power Electricity", "Vodacom Contract", "Virgin Active Gym", "Showmax Subscription", "Telkom Fibre"
+    };
+    private static final String[] EMPLOYERS = {
+            "Acme Corp", "Globex Holdings", "Initech SA", "Umbrella Logistics", "Wayne Mining"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Returns count transactions drawn from distinctDescriptions descriptions, spread over the given
+     * number of accounts. Descriptions are picked with a heavy skew towards the first ones.
+     */
+    static RawTransactionDTO[] transactions(int count, int distinctDescriptions, int accounts, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        RawTransactionDTO[] templates = new RawTransactionDTO[distinctDescriptions];
+        for (int i = 0; i < templates.length; i++) {
+            templates[i] = template(random);
+        }
+
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        RawTransactionDTO[] transactions = new RawTransactionDTO[count];
+        for (int i = 0; i < count; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            RawTransactionDTO template = templates[(int) (skewed * templates.length)];
+            int account = random.nextInt(accounts);
+
+            transactions[i] = new RawTransactionDTO(
+                    "bench-" + seed + "-" + i,
+                    "CLIENT-" + String.format("%05d", account / 2),
+                    "ACC-" + String.format("%010d", account),
+                    template.getSourceType(),
+                    template.getDescription(),
+                    template.getAmount(),
+                    start.plusMinutes(random.nextInt(60 * 24 * 365))
+            );
+        }
+        return transactions;
+    }
+
+    private static RawTransactionDTO template(SplittableRandom random) {
+        int kind = random.nextInt(100);
+
+        if (kind < 60) {
+            String merchant = pick(CARD_MERCHANTS, random);
+            String description = random.nextBoolean()
+                    ? merchant + " " + pick(BRANCHES, random)
+                    : "POS Purchase " + merchant + " " + pick(BRANCHES, random) + " " + (1000 + random.nextInt(9000));
+            return template(SourceType.CARD, description, -(20 + random.nextInt(2000)));
+        }
+        if (kind < 80) {
+            String description = pick(DEBIT_ORDER_PROVIDERS, random) + " Debit Order " + (100000 + random.nextInt(900000));
+            return template(SourceType.DEBIT_ORDER, description, -(100 + random.nextInt(3000)));
+        }
+        if (kind < 93) {
+            String employer = pick(EMPLOYERS, random);
+            return switch (random.nextInt(3)) {
+                case 0 -> template(SourceType.EFT, "Payment from " + employer + " - Salary", 25000 + random.nextInt(40000));
+                case 1 -> template(SourceType.EFT, "Refund " + pick(CARD_MERCHANTS, random), 50 + random.nextInt(1000));
+                default -> template(SourceType.EFT, "Transfer to savings " + (1000 + random.nextInt(9000)),
+                        -(500 + random.nextInt(5000)));
+            };
+        }
+        return random.nextBoolean()
+                ? template(SourceType.BANK_FEE, "Monthly service fee", -59)
+                : template(SourceType.BANK_FEE, "ATM withdrawal fee " + pick(BRANCHES, random), -(10 + random.nextInt(10)));
+    }
+
+    private static RawTransactionDTO template(SourceType sourceType, String description, long amount) {
+        return new RawTransactionDTO(null, null, null, sourceType, description, BigDecimal.valueOf(amount), null);
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,66 @@
+package com.fintech.benchmark;
+
+import com.fintech.categorization.CategorizationRuleRegistry;
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.entity.Transaction;
+import com.fintech.service.TransactionCategorizationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransactionCategorizationService#categorize} with the shipped rule set over a generated
+ * corpus. A result cache of size 0 runs the rules and merchant extraction on every call; the default
+ * size shows what the cache buys on a feed with repeating descriptions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategorizationBenchmark {
+
+    // A power of two, so the cursor wraps with a mask
+    private static final int CORPUS_SIZE = 1 << 16;
+
+    @Param({"0", "100000"})
+    private int resultCacheSize;
+
+    @Param({"1000", "50000"})
+    private int distinctDescriptions;
+
+    private TransactionCategorizationService categorizationService;
+    private RawTransactionDTO[] corpus;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() {
+        CategorizationRuleRegistry ruleRegistry =
+                new CategorizationRuleRegistry(new DefaultResourceLoader(), "classpath:categorization-rules.yml");
+        categorizationService =
+                new TransactionCategorizationService(ruleRegistry, resultCacheSize, new SimpleMeterRegistry());
+        corpus = BenchmarkData.transactions(CORPUS_SIZE, distinctDescriptions, 10_000, 42);
+    }
+
+    @Benchmark
+    public Transaction categorize(Cursor cursor) {
+        return categorizationService.categorize(corpus[cursor.next++ & (CORPUS_SIZE - 1)]);
+    }
+}
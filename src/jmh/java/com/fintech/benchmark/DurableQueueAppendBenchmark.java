@@ -0,0 +1,113 @@
+package com.fintech.benchmark;
+
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.queue.DurableTransactionQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Appends to {@link DurableTransactionQueue}, which the queue benchmark leaves out, from 1 to 8
+ * producer threads; nothing consumes. The aim is at least 200k messages per second. Appends go to
+ * the mapped segment files, so this measures encoding, checksumming and the page cache; the
+ * scheduled flush that forces them to disk is not running. Each iteration starts on an empty log in
+ * a new directory under {@code directory}, the system temp directory by default; pass
+ * {@code -p directory=/dev/shm} to take the disk out entirely.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DurableQueueAppendBenchmark {
+
+    private static final int MESSAGES = 1 << 16;
+    private static final int SEGMENT_SIZE_BYTES = 64 << 20;
+
+    @Param({"1", "2", "4", "8"})
+    private int producers;
+
+    @Param({""})
+    private String directory;
+
+    private RawTransactionDTO[] transactions;
+    private ExecutorService executor;
+    private Path logDirectory;
+    private DurableTransactionQueue queue;
+
+    @Setup
+    public void setUp() {
+        transactions = BenchmarkData.transactions(MESSAGES, 1000, 10_000, 11);
+        executor = Executors.newFixedThreadPool(producers);
+    }
+
+    @Setup(Level.Iteration)
+    public void openLog() throws IOException {
+        logDirectory = directory.isEmpty()
+                ? Files.createTempDirectory("durable-queue-benchmark")
+                : Files.createTempDirectory(Path.of(directory), "durable-queue-benchmark");
+        queue = new DurableTransactionQueue(logDirectory.toString(), SEGMENT_SIZE_BYTES);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteLog() throws IOException {
+        queue = null;
+        try (Stream<Path> files = Files.walk(logDirectory)) {
+            // Files that are still mapped are freed once the queue is collected
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void publish() throws InterruptedException, ExecutionException {
+        List<Future<?>> publishing = new ArrayList<>(producers);
+        int share = MESSAGES / producers;
+        for (int i = 0; i < producers; i++) {
+            int from = i * share;
+            int to = i == producers - 1 ? MESSAGES : from + share;
+            publishing.add(executor.submit(() -> publish(from, to)));
+        }
+        for (Future<?> producer : publishing) {
+            producer.get();
+        }
+    }
+
+    private void publish(int from, int to) {
+        for (int i = from; i < to; i++) {
+            queue.publish(transactions[i]);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.fintech.benchmark;
+
+import com.fintech.aggregation.GroupTotals;
+import com.fintech.aggregation.ParallelTransactionAggregator;
+import com.fintech.aggregation.TransactionAggregateStore;
+import com.fintech.dto.AccountSummaryDTO;
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.dto.TransactionSummaryDTO;
+import com.fintech.entity.Transaction;
+import com.fintech.enums.Category;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Category and account summaries of transactions already in memory: a single pass of
+ * {@link ParallelTransactionAggregator#aggregateRanges} adding long cents, on pools of 1 to 8 workers,
+ * against the original summary code, which grouped with {@code stream().collect(groupingBy)} and then
+ * streamed each group again to add up BigDecimals.
+ * The baseline is sequential, so its score does not depend on {@code parallelism}. Speedup beyond the
+ * number of cores of the machine running the benchmark is not to be expected.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SummaryAggregationBenchmark {
+
+    // Below this many transactions a range is not worth splitting further
+    private static final int MIN_TRANSACTIONS_PER_TASK = 4096;
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private List<Transaction> transactions;
+    private ForkJoinPool pool;
+    private ParallelTransactionAggregator aggregator;
+
+    @Setup
+    public void setUp() {
+        RawTransactionDTO[] raw = BenchmarkData.transactions(size, 1000, 10_000, 13);
+        Category[] categories = Category.values();
+
+        transactions = new ArrayList<>(raw.length);
+        for (int i = 0; i < raw.length; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setAccountNumber(raw[i].getAccountNumber());
+            // Scale 2, as amounts read back from the numeric(19, 2) column are
+            transaction.setAmount(raw[i].getAmount().setScale(2));
+            transaction.setCategory(categories[i % categories.length]);
+            transactions.add(transaction);
+        }
+
+        pool = new ForkJoinPool(parallelism);
+        aggregator = new ParallelTransactionAggregator(pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<TransactionSummaryDTO> parallelByCategory() {
+        GroupTotals totals = aggregator.aggregateRanges(transactions.size(), MIN_TRANSACTIONS_PER_TASK,
+                () -> new GroupTotals(CATEGORIES.length),
+                (categoryTotals, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        Transaction transaction = transactions.get(i);
+                        categoryTotals.add(transaction.getCategory().ordinal(),
+                                TransactionAggregateStore.toCents(transaction.getAmount()));
+                    }
+                },
+                GroupTotals::mergeInto);
+
+        List<TransactionSummaryDTO> summaries = new ArrayList<>();
+        totals.forEach((ordinal, count, cents) -> summaries.add(new TransactionSummaryDTO(
+                CATEGORIES[(int) ordinal], count, TransactionAggregateStore.fromCents(cents))));
+        summaries.sort(Comparator.comparing(TransactionSummaryDTO::getTotalAmount).reversed());
+        return summaries;
+    }
+
+    @Benchmark
+    public List<AccountSummaryDTO> parallelByAccount() {
+        Map<String, Totals> totals = aggregator.aggregateRanges(transactions.size(), MIN_TRANSACTIONS_PER_TASK,
+                HashMap::new,
+                (accountTotals, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        Transaction transaction = transactions.get(i);
+                        accountTotals.computeIfAbsent(transaction.getAccountNumber(), accountNumber -> new Totals())
+                                .add(1, TransactionAggregateStore.toCents(transaction.getAmount()));
+                    }
+                },
+                SummaryAggregationBenchmark::mergeAccounts);
+
+        List<AccountSummaryDTO> summaries = new ArrayList<>(totals.size());
+        totals.forEach((accountNumber, accountTotals) -> summaries.add(new AccountSummaryDTO(
+                accountNumber, accountTotals.count, TransactionAggregateStore.fromCents(accountTotals.cents))));
+        summaries.sort(Comparator.comparing(AccountSummaryDTO::getAccountNumber));
+        return summaries;
+    }
+
+    @Benchmark
+    public List<TransactionSummaryDTO> streamsByCategory() {
+        Map<Category, List<Transaction>> groupedByCategory = transactions.stream()
+                .collect(Collectors.groupingBy(Transaction::getCategory));
+
+        return groupedByCategory.entrySet().stream()
+                .map(entry -> new TransactionSummaryDTO(
+                        entry.getKey(),
+                        (long) entry.getValue().size(),
+                        entry.getValue().stream().map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add)))
+                .sorted((a, b) -> b.getTotalAmount().compareTo(a.getTotalAmount()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<AccountSummaryDTO> streamsByAccount() {
+        Map<String, List<Transaction>> groupedByAccount = transactions.stream()
+                .collect(Collectors.groupingBy(Transaction::getAccountNumber));
+
+        return groupedByAccount.entrySet().stream()
+                .map(entry -> new AccountSummaryDTO(
+                        entry.getKey(),
+                        (long) entry.getValue().size(),
+                        entry.getValue().stream().map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add)))
+                .sorted((a, b) -> a.getAccountNumber().compareTo(b.getAccountNumber()))
+                .collect(Collectors.toList());
+    }
+
+    // Folds the smaller map into the larger one
+    private static Map<String, Totals> mergeAccounts(Map<String, Totals> left, Map<String, Totals> right) {
+        Map<String, Totals> into = left.size() >= right.size() ? left : right;
+        Map<String, Totals> from = into == left ? right : left;
+        from.forEach((accountNumber, totals) -> {
+            Totals existing = into.putIfAbsent(accountNumber, totals);
+            if (existing != null) {
+                existing.add(totals.count, totals.cents);
+            }
+        });
+        return into;
+    }
+
+    private static final class Totals {
+
+        private long count;
+        private long cents;
+
+        Totals add(long transactions, long amountCents) {
+            count += transactions;
+            cents += amountCents;
+            return this;
+        }
+    }
+}
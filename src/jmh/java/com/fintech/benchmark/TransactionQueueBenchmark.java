@@ -0,0 +1,124 @@
+package com.fintech.benchmark;
+
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.queue.InMemoryTransactionQueue;
+import com.fintech.queue.PartitionedTransactionQueue;
+import com.fintech.queue.RingBufferTransactionQueue;
+import com.fintech.queue.TransactionQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves a fixed number of transactions from producer threads to consumer threads through each
+ * {@link TransactionQueue} implementation, for every combination of producer and consumer counts.
+ * Producers publish, blocking while the queue is full; consumers take one message at a time until
+ * they receive an end marker, which is published once all producers are done.
+ *
+ * The partitioned queue gets one lane per consumer, as in the application. The durable queue is left
+ * out: it measures the disk more than the hand-off. {@link DurableQueueAppendBenchmark} covers its
+ * appends.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionQueueBenchmark {
+
+    private static final int MESSAGES = 1 << 16;
+    private static final RawTransactionDTO END = new RawTransactionDTO();
+
+    @Param({"memory", "ring", "partitioned"})
+    private String queueType;
+
+    @Param({"1", "4", "16"})
+    private int producers;
+
+    @Param({"1", "4", "16"})
+    private int consumers;
+
+    private TransactionQueue queue;
+    private RawTransactionDTO[] transactions;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        queue = switch (queueType) {
+            case "memory" -> new InMemoryTransactionQueue(10_000);
+            case "ring" -> new RingBufferTransactionQueue(8192, "park");
+            case "partitioned" -> new PartitionedTransactionQueue(consumers, "ring", 8192, "park", 10_000,
+                    new SimpleMeterRegistry());
+            default -> throw new IllegalArgumentException("Unsupported queue type: " + queueType);
+        };
+        transactions = BenchmarkData.transactions(MESSAGES, 1000, 10_000, 7);
+        executor = Executors.newFixedThreadPool(producers + consumers);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void publishAndConsume() throws InterruptedException, ExecutionException {
+        List<TransactionQueue> sources = queue.consumerSources(consumers);
+        List<Future<?>> consuming = new ArrayList<>(sources.size());
+        for (TransactionQueue source : sources) {
+            consuming.add(executor.submit(() -> consumeUntilEnd(source)));
+        }
+
+        List<Future<?>> publishing = new ArrayList<>(producers);
+        int share = MESSAGES / producers;
+        for (int i = 0; i < producers; i++) {
+            int from = i * share;
+            int to = i == producers - 1 ? MESSAGES : from + share;
+            publishing.add(executor.submit(() -> publish(from, to)));
+        }
+        for (Future<?> producer : publishing) {
+            producer.get();
+        }
+
+        // Every message is ahead of the end markers, so each consumer stops after its share of the work
+        for (TransactionQueue source : sources) {
+            source.publish(END);
+        }
+        for (Future<?> consumer : consuming) {
+            consumer.get();
+        }
+    }
+
+    private void publish(int from, int to) {
+        for (int i = from; i < to; i++) {
+            queue.publish(transactions[i]);
+        }
+    }
+
+    private static Void consumeUntilEnd(TransactionQueue source) throws InterruptedException {
+        while (source.consume() != END) {
+            // Only the hand-off is measured
+        }
+        return null;
+    }
+}
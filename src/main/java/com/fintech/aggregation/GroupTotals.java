@@ -0,0 +1,121 @@
+package com.fintech.aggregation;
+
+import java.util.Arrays;
+
+/**
+ * Count and sum of cents per group, for one thread's share of a scan. Groups are identified by a
+ * non-negative long key. Up to {@link #DENSE_LIMIT} possible groups the key indexes plain arrays;
+ * beyond that the totals live in an open-addressing hash table, so there is no boxing either way.
+ * Not thread-safe: each task fills its own and they are merged once the tasks are done.
+ */
+public final class GroupTotals {
+
+    public static final int DENSE_LIMIT = 4096;
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final long EMPTY = -1;
+
+    private final boolean dense;
+    private long[] keys;
+    private long[] counts;
+    private long[] cents;
+    private int size;
+
+    @FunctionalInterface
+    public interface GroupHandler {
+        void handle(long key, long count, long cents);
+    }
+
+    /**
+     * @param groups the number of possible keys, 0 to groups - 1, or more than {@link #DENSE_LIMIT}
+     *               when that is not known
+     */
+    public GroupTotals(long groups) {
+        this.dense = groups <= DENSE_LIMIT;
+        int capacity = dense ? (int) groups : INITIAL_CAPACITY;
+        this.counts = new long[capacity];
+        this.cents = new long[capacity];
+        if (!dense) {
+            this.keys = newKeys(capacity);
+        }
+    }
+
+    public void add(long key, long amountCents) {
+        add(key, 1, amountCents);
+    }
+
+    public void add(long key, long count, long amountCents) {
+        int slot = dense ? (int) key : slot(key);
+        counts[slot] += count;
+        cents[slot] += amountCents;
+    }
+
+    public void merge(GroupTotals other) {
+        other.forEach(this::add);
+    }
+
+    // For use as a combiner: merges right into left and returns left
+    public static GroupTotals mergeInto(GroupTotals left, GroupTotals right) {
+        left.merge(right);
+        return left;
+    }
+
+    // Visits every group with at least one transaction, in no particular order
+    public void forEach(GroupHandler handler) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] != 0) {
+                handler.handle(dense ? slot : keys[slot], counts[slot], cents[slot]);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            long existing = keys[slot];
+            if (existing == key) {
+                return slot;
+            }
+            if (existing == EMPTY) {
+                if (++size * 2 > keys.length) {
+                    grow();
+                    return slot(key);
+                }
+                keys[slot] = key;
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        long[] oldCents = cents;
+
+        keys = newKeys(oldKeys.length * 2);
+        counts = new long[keys.length];
+        cents = new long[keys.length];
+        size = 0;
+
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int newSlot = slot(oldKeys[slot]);
+                counts[newSlot] = oldCounts[slot];
+                cents[newSlot] = oldCents[slot];
+            }
+        }
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    private static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -0,0 +1,79 @@
+package com.fintech.aggregation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Single-pass parallel aggregation of data already in memory. The input is split into ranges on a
+ * fork-join pool. Each task accumulates its range into its own accumulator, so no lock or atomic is
+ * touched per element, and the accumulators are merged as the tasks join.
+ *
+ * {@link com.fintech.analytics.TransactionColumnStore} scans its segments through
+ * {@link #aggregateRanges}, totalling amounts as long cents in a {@link GroupTotals} per task.
+ */
+public final class ParallelTransactionAggregator {
+
+    private final ForkJoinPool pool;
+
+    // Adds the elements from (inclusive) to (exclusive) to accumulator
+    @FunctionalInterface
+    public interface RangeAccumulator<A> {
+        void accumulate(A accumulator, int from, int to);
+    }
+
+    public ParallelTransactionAggregator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelTransactionAggregator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Accumulates the elements 0 to size - 1, in ranges of at least minTaskSize, each into a fresh
+     * accumulator from supplier, and combines the results.
+     */
+    public <A> A aggregateRanges(int size, int minTaskSize, Supplier<A> supplier,
+                                 RangeAccumulator<A> accumulator, BinaryOperator<A> combiner) {
+        // A few tasks per worker, so one that runs slow does not hold up the rest
+        int taskSize = Math.max(minTaskSize, size / (pool.getParallelism() * 4));
+        return pool.invoke(new AggregateTask<>(0, size, taskSize, supplier, accumulator, combiner));
+    }
+
+    private static final class AggregateTask<A> extends RecursiveTask<A> {
+
+        private final int from;
+        private final int to;
+        private final int taskSize;
+        private final Supplier<A> supplier;
+        private final RangeAccumulator<A> accumulator;
+        private final BinaryOperator<A> combiner;
+
+        AggregateTask(int from, int to, int taskSize, Supplier<A> supplier, RangeAccumulator<A> accumulator,
+                      BinaryOperator<A> combiner) {
+            this.from = from;
+            this.to = to;
+            this.taskSize = taskSize;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from > taskSize) {
+                int middle = (from + to) >>> 1;
+                AggregateTask<A> left = new AggregateTask<>(from, middle, taskSize, supplier, accumulator, combiner);
+                left.fork();
+                A right = new AggregateTask<>(middle, to, taskSize, supplier, accumulator, combiner).compute();
+                return combiner.apply(left.join(), right);
+            }
+
+            A result = supplier.get();
+            accumulator.accumulate(result, from, to);
+            return result;
+        }
+    }
+}
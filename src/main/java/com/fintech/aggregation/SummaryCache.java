@@ -0,0 +1,158 @@
+package com.fintech.aggregation;
+
+import com.fintech.entity.Transaction;
+import com.fintech.enums.Category;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the summary endpoints, keyed by summary and filter parameters. Every saved
+ * transaction bumps a version counter for its category, one for its account and a global one; a cached
+ * summary is stamped with the version of what it depends on, read before it was computed, and reused
+ * only while that version is unchanged. Accounts share a fixed number of counters, so a save can make
+ * an unrelated account's summary recompute but never lets a stale one through.
+ *
+ * The TTL only covers changes made behind the application's back, such as rows inserted by hand.
+ */
+@Component
+public class SummaryCache {
+
+    // A power of two, so an account's counter is picked with a mask
+    private static final int ACCOUNT_STRIPES = 4096;
+
+    private final Cache<SummaryKey, Stamped> cache;
+
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final AtomicLongArray categoryVersions = new AtomicLongArray(Category.values().length);
+    private final AtomicLongArray accountVersions = new AtomicLongArray(ACCOUNT_STRIPES);
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+
+    private record SummaryKey(String summary, String accountNumber, Category category, List<Object> filters) {
+    }
+
+    private record Stamped(long version, List<?> summaries) {
+    }
+
+    public SummaryCache(
+            @Value("${app.aggregates.summary-cache.max-size:1000}") long maxSize,
+            @Value("${app.aggregates.summary-cache.ttl-seconds:300}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        Counter.Builder evictions = Counter.builder("transaction.summary.cache.evictions")
+                .description("Cached summaries dropped for size or age");
+        Counter evictedForSize = evictions.tag("cause", "size").register(meterRegistry);
+        Counter evictedForAge = evictions.tag("cause", "expired").register(meterRegistry);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .removalListener((SummaryKey key, Stamped value, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        evictedForSize.increment();
+                    } else if (cause == RemovalCause.EXPIRED) {
+                        evictedForAge.increment();
+                    }
+                })
+                .build();
+
+        // Caffeine's own statistics would count an entry with an outdated version as a hit
+        Counter.Builder lookups = Counter.builder("transaction.summary.cache.lookups")
+                .description("Summary lookups by outcome; stale means cached but invalidated by a later save");
+        this.hits = lookups.tag("result", "hit").register(meterRegistry);
+        this.misses = lookups.tag("result", "miss").register(meterRegistry);
+        this.stale = lookups.tag("result", "stale").register(meterRegistry);
+
+        Gauge.builder("transaction.summary.cache.hit.ratio", this, SummaryCache::hitRatio)
+                .description("Share of summary lookups answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("transaction.summary.cache.size", cache, Cache::estimatedSize)
+                .description("Cached summaries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached summary, or computes and caches it. A summary filtered on an account depends
+     * only on that account's transactions, one filtered on a category (and no account) only on that
+     * category's; anything else depends on every transaction. The other filters only make up the key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(String summary, String accountNumber, Category category,
+                           Supplier<List<T>> loader, Object... filters) {
+        SummaryKey key = new SummaryKey(summary, accountNumber, category, Arrays.asList(filters));
+        long version = version(accountNumber, category);
+
+        Stamped cached = cache.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return (List<T>) cached.summaries();
+        }
+        (cached == null ? misses : stale).increment();
+
+        // Shared between requests from here on, so it must not be changed by any of them
+        List<T> summaries = List.copyOf(loader.get());
+        // A slower request computed against an older version must not replace a newer entry
+        cache.asMap().merge(key, new Stamped(version, summaries),
+                (existing, computed) -> computed.version() >= existing.version() ? computed : existing);
+        return summaries;
+    }
+
+    // Called once a transaction is committed
+    public void recordSaved(Transaction transaction) {
+        recordSaved(transaction.getCategory(), transaction.getAccountNumber());
+    }
+
+    public void recordSaved(Category category, String accountNumber) {
+        categoryVersions.incrementAndGet(category.ordinal());
+        accountVersions.incrementAndGet(accountStripe(accountNumber));
+        globalVersion.incrementAndGet();
+    }
+
+    // For changes that cannot be attributed to a category or account, such as a rollup rebuild
+    public void invalidateAll() {
+        // Bumping every version also outdates summaries still being computed
+        for (int i = 0; i < categoryVersions.length(); i++) {
+            categoryVersions.incrementAndGet(i);
+        }
+        for (int i = 0; i < ACCOUNT_STRIPES; i++) {
+            accountVersions.incrementAndGet(i);
+        }
+        globalVersion.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private long version(String accountNumber, Category category) {
+        if (accountNumber != null) {
+            return accountVersions.get(accountStripe(accountNumber));
+        }
+        if (category != null) {
+            return categoryVersions.get(category.ordinal());
+        }
+        return globalVersion.get();
+    }
+
+    private static int accountStripe(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & (ACCOUNT_STRIPES - 1);
+    }
+
+    private double hitRatio() {
+        double hitCount = hits.count();
+        double lookupCount = hitCount + misses.count() + stale.count();
+        return lookupCount == 0 ? 0 : hitCount / lookupCount;
+    }
+}
@@ -0,0 +1,136 @@
+package com.fintech.aggregation;
+
+import com.fintech.dto.AccountSummaryDTO;
+import com.fintech.dto.TransactionSummaryDTO;
+import com.fintech.entity.Transaction;
+import com.fintech.enums.Category;
+import com.fintech.repository.TransactionJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running per-category and per-account totals of every saved transaction, so the unfiltered
+ * summaries can be answered without touching the database. Amounts are kept as cents in
+ * {@link LongAdder}s, which lets every consumer thread record concurrently without contention.
+ * The store is seeded from one grouped query at startup, before the consumers are started.
+ */
+@Component
+public class TransactionAggregateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionAggregateStore.class);
+
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final boolean enabled;
+
+    private final Map<Category, Cell> byCategory = new EnumMap<>(Category.class);
+    private final ConcurrentMap<String, Cell> byAccount = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    public TransactionAggregateStore(
+            TransactionJdbcRepository transactionJdbcRepository,
+            @Value("${app.aggregates.in-memory.enabled:true}") boolean enabled) {
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.enabled = enabled;
+
+        // Every category cell exists up front, so the map itself is never modified after construction
+        for (Category category : Category.values()) {
+            byCategory.put(category, new Cell());
+        }
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            logger.info("In-memory transaction aggregates are disabled");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        try {
+            transactionJdbcRepository.aggregateByCategoryAndAccount(this::record);
+            ready = true;
+            logger.info("Rebuilt in-memory aggregates for {} accounts in {} ms",
+                    byAccount.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            // Summaries keep being served from the database
+            logger.error("Failed to rebuild in-memory aggregates", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void record(Transaction transaction) {
+        record(transaction.getCategory(), transaction.getAccountNumber(), 1, transaction.getAmount());
+    }
+
+    public void record(Category category, String accountNumber, long count, BigDecimal totalAmount) {
+        if (!enabled) {
+            return;
+        }
+
+        long cents = toCents(totalAmount);
+        byCategory.get(category).add(count, cents);
+        byAccount.computeIfAbsent(accountNumber, key -> new Cell()).add(count, cents);
+    }
+
+    public List<TransactionSummaryDTO> summarizeByCategory() {
+        List<TransactionSummaryDTO> summaries = new ArrayList<>();
+
+        byCategory.forEach((category, cell) -> {
+            long count = cell.count.sum();
+            if (count > 0) {
+                summaries.add(new TransactionSummaryDTO(category, count, fromCents(cell.cents.sum())));
+            }
+        });
+
+        summaries.sort(Comparator.comparing(TransactionSummaryDTO::getTotalAmount).reversed());
+        return summaries;
+    }
+
+    public List<AccountSummaryDTO> summarizeByAccount() {
+        List<AccountSummaryDTO> summaries = new ArrayList<>(byAccount.size());
+
+        byAccount.forEach((accountNumber, cell) ->
+                summaries.add(new AccountSummaryDTO(accountNumber, cell.count.sum(), fromCents(cell.cents.sum()))));
+
+        summaries.sort(Comparator.comparing(AccountSummaryDTO::getAccountNumber));
+        return summaries;
+    }
+
+    // amount is numeric(19, 2), and PostgreSQL rounds half away from zero on insert, as HALF_UP does
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static final class Cell {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder cents = new LongAdder();
+
+        void add(long transactions, long amountCents) {
+            count.add(transactions);
+            cents.add(amountCents);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.fintech.analytics;
+
+import com.fintech.enums.AnalyticsDimension;
+import com.fintech.enums.Category;
+import com.fintech.enums.SourceType;
+import com.fintech.enums.Subcategory;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A group-by over the columnar snapshot: sums and counts per combination of the {@code groupBy}
+ * dimensions, over the transactions that pass every filter. An empty or null filter does not
+ * restrict; an empty {@code groupBy} gives a single total.
+ */
+public record AnalyticsQuery(
+        List<AnalyticsDimension> groupBy,
+        Set<Category> categories,
+        Set<Subcategory> subcategories,
+        Set<SourceType> sourceTypes,
+        LocalDate startDate,
+        LocalDate endDate,
+        String accountNumber) {
+}
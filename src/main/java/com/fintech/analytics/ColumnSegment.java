@@ -0,0 +1,94 @@
+package com.fintech.analytics;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link #ROWS} rows of the columnar snapshot in one memory-mapped file, so none of it is on the
+ * Java heap. Every column is a fixed-width block of the file: category, subcategory and source type
+ * ordinals (one byte each), amount in cents (eight), epoch day (four) and account id (four), which
+ * keeps a scan reading each column sequentially. Rows past the snapshot's row count are left
+ * zero-filled or hold stale data and are never read. Writes are serialized by
+ * {@link TransactionColumnStore}; reads need no lock.
+ */
+final class ColumnSegment {
+
+    static final int ROW_SHIFT = 16;
+    static final int ROWS = 1 << ROW_SHIFT;
+    static final String SUFFIX = ".col";
+
+    private static final int CATEGORY_OFFSET = 0;
+    private static final int SUBCATEGORY_OFFSET = CATEGORY_OFFSET + ROWS;
+    private static final int SOURCE_TYPE_OFFSET = SUBCATEGORY_OFFSET + ROWS;
+    private static final int AMOUNT_OFFSET = SOURCE_TYPE_OFFSET + ROWS;
+    private static final int EPOCH_DAY_OFFSET = AMOUNT_OFFSET + ROWS * Long.BYTES;
+    private static final int ACCOUNT_OFFSET = EPOCH_DAY_OFFSET + ROWS * Integer.BYTES;
+    static final int SIZE_BYTES = ACCOUNT_OFFSET + ROWS * Integer.BYTES;
+
+    private final MappedByteBuffer buffer;
+
+    private ColumnSegment(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        // Only ever read back on this machine
+        buffer.order(ByteOrder.nativeOrder());
+    }
+
+    // Creates the file if it does not exist; an existing one is reused as it is
+    static ColumnSegment map(Path directory, int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(directory, index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new ColumnSegment(channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE_BYTES));
+        }
+    }
+
+    static boolean exists(Path directory, int index) throws IOException {
+        Path path = path(directory, index);
+        return Files.exists(path) && Files.size(path) == SIZE_BYTES;
+    }
+
+    static Path path(Path directory, int index) {
+        return directory.resolve(String.format("%08d%s", index, SUFFIX));
+    }
+
+    void set(int row, byte category, byte subcategory, byte sourceType, long amountCents, int epochDay, int accountId) {
+        buffer.put(CATEGORY_OFFSET + row, category);
+        buffer.put(SUBCATEGORY_OFFSET + row, subcategory);
+        buffer.put(SOURCE_TYPE_OFFSET + row, sourceType);
+        buffer.putLong(AMOUNT_OFFSET + row * Long.BYTES, amountCents);
+        buffer.putInt(EPOCH_DAY_OFFSET + row * Integer.BYTES, epochDay);
+        buffer.putInt(ACCOUNT_OFFSET + row * Integer.BYTES, accountId);
+    }
+
+    byte category(int row) {
+        return buffer.get(CATEGORY_OFFSET + row);
+    }
+
+    byte subcategory(int row) {
+        return buffer.get(SUBCATEGORY_OFFSET + row);
+    }
+
+    byte sourceType(int row) {
+        return buffer.get(SOURCE_TYPE_OFFSET + row);
+    }
+
+    long amountCents(int row) {
+        return buffer.getLong(AMOUNT_OFFSET + row * Long.BYTES);
+    }
+
+    int epochDay(int row) {
+        return buffer.getInt(EPOCH_DAY_OFFSET + row * Integer.BYTES);
+    }
+
+    int accountId(int row) {
+        return buffer.getInt(ACCOUNT_OFFSET + row * Integer.BYTES);
+    }
+
+    void flush() {
+        buffer.force();
+    }
+}
@@ -0,0 +1,517 @@
+package com.fintech.analytics;
+
+import com.fintech.aggregation.GroupTotals;
+import com.fintech.aggregation.ParallelTransactionAggregator;
+import com.fintech.aggregation.TransactionAggregateStore;
+import com.fintech.dto.AnalyticsGroupDTO;
+import com.fintech.dto.AnalyticsResultDTO;
+import com.fintech.entity.Transaction;
+import com.fintech.enums.AnalyticsDimension;
+import com.fintech.enums.Category;
+import com.fintech.enums.SourceType;
+import com.fintech.enums.Subcategory;
+import com.fintech.repository.TransactionJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Optional in-memory columnar copy of the transactions table, for ad-hoc group-bys that would
+ * otherwise each scan PostgreSQL. A transaction takes 19 bytes: category, subcategory and source
+ * type as enum ordinals in byte columns, the amount as long cents, the date as an epoch-day int and
+ * the account as an int id into a dictionary of account numbers.
+ *
+ * Rows live off-heap, in memory-mapped {@link ColumnSegment} files, so a large snapshot adds nothing
+ * for the garbage collector to trace; only the account numbers are on the heap. On a clean shutdown
+ * the files are forced to disk and the row count written to {@code snapshot.meta}. The next start
+ * maps them again instead of re-reading the table, as long as the table still holds exactly that
+ * many transactions; otherwise, and after a crash, the snapshot is rebuilt from the database. The
+ * snapshot is ready before the consumers start, and every committed insert is appended after that.
+ *
+ * Appends are serialized; queries take no lock and see every row published before they started. A
+ * query is split across the common fork-join pool by ranges of segments with
+ * {@link ParallelTransactionAggregator}, each task totalling its rows into its own {@link GroupTotals}.
+ */
+@Component
+public class TransactionColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionColumnStore.class);
+
+    private static final String META_FILE = "snapshot.meta";
+    private static final String ACCOUNTS_FILE = "accounts.dat";
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Subcategory[] SUBCATEGORIES = Subcategory.values();
+    private static final SourceType[] SOURCE_TYPES = SourceType.values();
+
+    // Byte columns hold ordinals, so files written with different enum constants cannot be reused
+    private static final int LAYOUT_HASH = Arrays.asList(
+            Arrays.toString(CATEGORIES), Arrays.toString(SUBCATEGORIES), Arrays.toString(SOURCE_TYPES),
+            ColumnSegment.ROWS).hashCode();
+
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final boolean enabled;
+    private final Path directory;
+
+    private final ParallelTransactionAggregator aggregator = new ParallelTransactionAggregator();
+
+    private final Object appendLock = new Object();
+    private final ConcurrentMap<String, Integer> accountIds = new ConcurrentHashMap<>();
+    // New account numbers, in id order; both guarded by appendLock
+    private DataOutputStream accountLog;
+    private long accountLogBytes;
+
+    // Replaced, never resized in place, when they fill up; rowCount is written last, which publishes the rest
+    private volatile ColumnSegment[] segments = new ColumnSegment[0];
+    private volatile String[] accountNumbers = new String[1024];
+    private volatile int accountCount;
+    private volatile int minDay = Integer.MAX_VALUE;
+    private volatile int maxDay = Integer.MIN_VALUE;
+    private volatile int rowCount;
+
+    private volatile boolean ready;
+
+    public TransactionColumnStore(
+            TransactionJdbcRepository transactionJdbcRepository,
+            @Value("${app.analytics.column-store.enabled:false}") boolean enabled,
+            @Value("${app.analytics.column-store.directory:./data/analytics}") String directory) {
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            logger.info("Columnar transaction snapshot is disabled");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        try {
+            Files.createDirectories(directory);
+            if (reopen()) {
+                logger.info("Reopened columnar snapshot of {} transactions for {} accounts from {} in {} ms",
+                        rowCount, accountCount, directory, System.currentTimeMillis() - started);
+            } else {
+                rebuildFromDatabase();
+                logger.info("Loaded {} transactions for {} accounts into the columnar snapshot in {} ms",
+                        rowCount, accountCount, System.currentTimeMillis() - started);
+            }
+            ready = true;
+        } catch (Exception e) {
+            logger.error("Failed to load the columnar transaction snapshot; analytical queries are unavailable", e);
+        }
+    }
+
+    // Maps the files of the last clean shutdown, if they still match the table
+    private boolean reopen() throws IOException {
+        Path metaFile = directory.resolve(META_FILE);
+        if (!Files.exists(metaFile)) {
+            return false;
+        }
+
+        int rows;
+        int accounts;
+        long accountBytes;
+        int firstDay;
+        int lastDay;
+        try (DataInputStream meta = new DataInputStream(new BufferedInputStream(Files.newInputStream(metaFile)))) {
+            if (meta.readInt() != FORMAT_VERSION || meta.readInt() != LAYOUT_HASH) {
+                logger.info("Columnar snapshot files in {} have an older layout; rebuilding", directory);
+                return false;
+            }
+            rows = meta.readInt();
+            accounts = meta.readInt();
+            accountBytes = meta.readLong();
+            firstDay = meta.readInt();
+            lastDay = meta.readInt();
+        }
+
+        long transactions = transactionJdbcRepository.count();
+        if (transactions != rows) {
+            logger.info("Columnar snapshot holds {} transactions but the table has {}; rebuilding", rows, transactions);
+            return false;
+        }
+
+        int segmentCount = (rows + ColumnSegment.ROWS - 1) >>> ColumnSegment.ROW_SHIFT;
+        ColumnSegment[] mapped = new ColumnSegment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            if (!ColumnSegment.exists(directory, i)) {
+                logger.warn("Columnar snapshot segment {} is missing; rebuilding", ColumnSegment.path(directory, i));
+                return false;
+            }
+            mapped[i] = ColumnSegment.map(directory, i);
+        }
+
+        String[] names = new String[Math.max(1024, Integer.highestOneBit(Math.max(accounts, 1)) * 2)];
+        Path accountsFile = directory.resolve(ACCOUNTS_FILE);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(accountsFile)))) {
+            for (int id = 0; id < accounts; id++) {
+                names[id] = in.readUTF();
+                accountIds.put(names[id], id);
+            }
+        }
+        // Anything after the last account counted in the meta file was never published
+        try (FileChannel channel = FileChannel.open(accountsFile, StandardOpenOption.WRITE)) {
+            channel.truncate(accountBytes);
+        }
+
+        synchronized (appendLock) {
+            accountLog = openAccountLog(false);
+            accountLogBytes = accountBytes;
+            accountNumbers = names;
+            accountCount = accounts;
+            minDay = firstDay;
+            maxDay = lastDay;
+            segments = mapped;
+            rowCount = rows;
+        }
+        return true;
+    }
+
+    private void rebuildFromDatabase() throws IOException {
+        // A crash part way through must not leave a meta file describing the new, incomplete files
+        Files.deleteIfExists(directory.resolve(META_FILE));
+        synchronized (appendLock) {
+            accountLog = openAccountLog(true);
+            accountLogBytes = 0;
+        }
+        // Existing segment files are overwritten row by row
+        transactionJdbcRepository.forEachTransaction(this::appendRow);
+    }
+
+    /**
+     * Forces the segments to disk and records the row count, so the next start can map them
+     * instead of reading the table. Runs after the consumers have stopped, since they depend on
+     * this store; anything appended later is dropped.
+     */
+    @PreDestroy
+    public void close() {
+        if (!ready) {
+            return;
+        }
+
+        synchronized (appendLock) {
+            ready = false;
+            try {
+                for (ColumnSegment segment : segments) {
+                    segment.flush();
+                }
+                accountLog.close();
+
+                Path metaFile = directory.resolve(META_FILE);
+                Path written = directory.resolve(META_FILE + ".tmp");
+                try (DataOutputStream meta = new DataOutputStream(Files.newOutputStream(written))) {
+                    meta.writeInt(FORMAT_VERSION);
+                    meta.writeInt(LAYOUT_HASH);
+                    meta.writeInt(rowCount);
+                    meta.writeInt(accountCount);
+                    meta.writeLong(accountLogBytes);
+                    meta.writeInt(minDay);
+                    meta.writeInt(maxDay);
+                }
+                Files.move(written, metaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logger.info("Saved columnar snapshot of {} transactions to {}", rowCount, directory);
+            } catch (IOException e) {
+                logger.error("Failed to save the columnar snapshot; it will be rebuilt on the next start", e);
+            }
+        }
+    }
+
+    private DataOutputStream openAccountLog(boolean truncate) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(directory.resolve(ACCOUNTS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                truncate ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND)));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    // Called once a transaction is committed
+    public void append(Transaction transaction) {
+        if (ready) {
+            appendRow(transaction);
+        }
+    }
+
+    private void appendRow(Transaction transaction) {
+        int epochDay = (int) transaction.getTransactionDate().toLocalDate().toEpochDay();
+        long amountCents = TransactionAggregateStore.toCents(transaction.getAmount());
+
+        synchronized (appendLock) {
+            int row = rowCount;
+            int segmentIndex = row >>> ColumnSegment.ROW_SHIFT;
+            ColumnSegment[] current = segments;
+            if (segmentIndex == current.length) {
+                current = Arrays.copyOf(current, segmentIndex + 1);
+                current[segmentIndex] = mapSegment(segmentIndex);
+                segments = current;
+            }
+
+            current[segmentIndex].set(row & (ColumnSegment.ROWS - 1),
+                    (byte) transaction.getCategory().ordinal(),
+                    (byte) transaction.getSubcategory().ordinal(),
+                    (byte) transaction.getSourceType().ordinal(),
+                    amountCents,
+                    epochDay,
+                    accountId(transaction.getAccountNumber()));
+
+            if (epochDay < minDay) {
+                minDay = epochDay;
+            }
+            if (epochDay > maxDay) {
+                maxDay = epochDay;
+            }
+            rowCount = row + 1;
+        }
+    }
+
+    // Caller holds appendLock
+    private ColumnSegment mapSegment(int index) {
+        try {
+            return ColumnSegment.map(directory, index);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map columnar snapshot segment " + index, e);
+        }
+    }
+
+    // Caller holds appendLock
+    private int accountId(String accountNumber) {
+        Integer existing = accountIds.get(accountNumber);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = accountCount;
+        String[] names = accountNumbers;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[id] = accountNumber;
+        try {
+            int before = accountLog.size();
+            accountLog.writeUTF(accountNumber);
+            accountLogBytes += accountLog.size() - before;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to record account " + accountNumber + " in the columnar snapshot", e);
+        }
+        accountNumbers = names;
+        accountIds.put(accountNumber, id);
+        accountCount = id + 1;
+        return id;
+    }
+
+    public AnalyticsResultDTO groupBy(AnalyticsQuery query) {
+        long started = System.currentTimeMillis();
+
+        // rowCount first: everything it publishes is visible from here on
+        int rows = rowCount;
+        ColumnSegment[] snapshot = segments;
+        int accounts = accountCount;
+        String[] names = accountNumbers;
+        int firstDay = minDay;
+        int lastDay = maxDay;
+
+        ScanPlan plan = plan(query, accounts, firstDay, lastDay);
+        List<AnalyticsGroupDTO> groups = new ArrayList<>();
+
+        if (plan != null && rows > 0) {
+            int segmentCount = (rows + ColumnSegment.ROWS - 1) >>> ColumnSegment.ROW_SHIFT;
+            GroupTotals totals = aggregator.aggregateRanges(segmentCount, 1,
+                    () -> new GroupTotals(plan.groups()),
+                    (segmentTotals, from, to) -> {
+                        for (int i = from; i < to; i++) {
+                            int segmentRows = Math.min(ColumnSegment.ROWS, rows - (i << ColumnSegment.ROW_SHIFT));
+                            scan(plan, snapshot[i], segmentRows, segmentTotals);
+                        }
+                    },
+                    GroupTotals::mergeInto);
+
+            List<long[]> keyed = new ArrayList<>();
+            totals.forEach((key, count, cents) -> keyed.add(new long[]{key, count, cents}));
+            keyed.sort(Comparator.comparingLong(group -> group[0]));
+            for (long[] group : keyed) {
+                groups.add(toGroup(plan, names, firstDay, group[0], group[1], group[2]));
+            }
+        }
+
+        return new AnalyticsResultDTO(rows, System.currentTimeMillis() - started, groups);
+    }
+
+    // Null when no row can match
+    private ScanPlan plan(AnalyticsQuery query, int accounts, int firstDay, int lastDay) {
+        int accountId = -1;
+        if (query.accountNumber() != null) {
+            Integer id = accountIds.get(query.accountNumber());
+            if (id == null || id >= accounts) {
+                return null;
+            }
+            accountId = id;
+        }
+
+        List<AnalyticsDimension> dimensions = query.groupBy() == null
+                ? List.of()
+                : List.copyOf(new LinkedHashSet<>(query.groupBy()));
+        long[] radix = new long[dimensions.size()];
+        long groups = 1;
+        for (int d = 0; d < radix.length; d++) {
+            radix[d] = switch (dimensions.get(d)) {
+                case CATEGORY -> CATEGORIES.length;
+                case SUBCATEGORY -> SUBCATEGORIES.length;
+                case SOURCE_TYPE -> SOURCE_TYPES.length;
+                case MONTH -> firstDay > lastDay ? 1 : monthIndex(firstDay, lastDay) + 1;
+                case ACCOUNT -> Math.max(accounts, 1);
+            };
+            groups = Math.multiplyExact(groups, radix[d]);
+        }
+
+        int[] monthOfDay = null;
+        if (dimensions.contains(AnalyticsDimension.MONTH) && firstDay <= lastDay) {
+            monthOfDay = new int[lastDay - firstDay + 1];
+            for (int day = firstDay; day <= lastDay; day++) {
+                monthOfDay[day - firstDay] = monthIndex(firstDay, day);
+            }
+        }
+
+        return new ScanPlan(
+                mask(query.categories(), CATEGORIES.length),
+                mask(query.subcategories(), SUBCATEGORIES.length),
+                mask(query.sourceTypes(), SOURCE_TYPES.length),
+                query.startDate() == null ? Integer.MIN_VALUE : (int) query.startDate().toEpochDay(),
+                query.endDate() == null ? Integer.MAX_VALUE : (int) query.endDate().toEpochDay(),
+                accountId,
+                dimensions.toArray(new AnalyticsDimension[0]),
+                radix,
+                groups,
+                firstDay,
+                monthOfDay);
+    }
+
+    private AnalyticsGroupDTO toGroup(ScanPlan plan, String[] names, int firstDay, long key, long count, long cents) {
+        AnalyticsGroupDTO group = new AnalyticsGroupDTO();
+        group.setTransactionCount(count);
+        group.setTotalAmount(TransactionAggregateStore.fromCents(cents));
+
+        // The key is mixed-radix, first dimension most significant
+        for (int d = plan.dimensions().length - 1; d >= 0; d--) {
+            int value = (int) (key % plan.radix()[d]);
+            key /= plan.radix()[d];
+            switch (plan.dimensions()[d]) {
+                case CATEGORY -> group.setCategory(CATEGORIES[value]);
+                case SUBCATEGORY -> group.setSubcategory(SUBCATEGORIES[value]);
+                case SOURCE_TYPE -> group.setSourceType(SOURCE_TYPES[value]);
+                case MONTH -> group.setMonth(YearMonth.from(LocalDate.ofEpochDay(firstDay)).plusMonths(value).toString());
+                case ACCOUNT -> group.setAccountNumber(names[value]);
+            }
+        }
+        return group;
+    }
+
+    private static int monthIndex(int firstDay, int day) {
+        LocalDate first = LocalDate.ofEpochDay(firstDay);
+        LocalDate date = LocalDate.ofEpochDay(day);
+        return (date.getYear() - first.getYear()) * 12 + date.getMonthValue() - first.getMonthValue();
+    }
+
+    private static <E extends Enum<E>> boolean[] mask(Set<E> allowed, int size) {
+        if (allowed == null || allowed.isEmpty()) {
+            return null;
+        }
+        boolean[] mask = new boolean[size];
+        for (E value : allowed) {
+            mask[value.ordinal()] = true;
+        }
+        return mask;
+    }
+
+    private record ScanPlan(
+            boolean[] categories,
+            boolean[] subcategories,
+            boolean[] sourceTypes,
+            int fromDay,
+            int toDay,
+            int accountId,
+            AnalyticsDimension[] dimensions,
+            long[] radix,
+            long groups,
+            int firstDay,
+            int[] monthOfDay) {
+    }
+
+    private static void scan(ScanPlan plan, ColumnSegment segment, int segmentRows, GroupTotals totals) {
+        boolean[] categories = plan.categories();
+        boolean[] subcategories = plan.subcategories();
+        boolean[] sourceTypes = plan.sourceTypes();
+        int fromDay = plan.fromDay();
+        int toDay = plan.toDay();
+        int accountId = plan.accountId();
+        AnalyticsDimension[] dimensions = plan.dimensions();
+        long[] radix = plan.radix();
+        int[] monthOfDay = plan.monthOfDay();
+        int firstDay = plan.firstDay();
+
+        for (int row = 0; row < segmentRows; row++) {
+            if (categories != null && !categories[segment.category(row)]) {
+                continue;
+            }
+            if (subcategories != null && !subcategories[segment.subcategory(row)]) {
+                continue;
+            }
+            if (sourceTypes != null && !sourceTypes[segment.sourceType(row)]) {
+                continue;
+            }
+            int day = segment.epochDay(row);
+            if (day < fromDay || day > toDay) {
+                continue;
+            }
+            if (accountId >= 0 && segment.accountId(row) != accountId) {
+                continue;
+            }
+
+            long key = 0;
+            for (int d = 0; d < dimensions.length; d++) {
+                int value = switch (dimensions[d]) {
+                    case CATEGORY -> segment.category(row);
+                    case SUBCATEGORY -> segment.subcategory(row);
+                    case SOURCE_TYPE -> segment.sourceType(row);
+                    case MONTH -> monthOfDay[day - firstDay];
+                    case ACCOUNT -> segment.accountId(row);
+                };
+                key = key * radix[d] + value;
+            }
+            totals.add(key, segment.amountCents(row));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.fintech.categorization;
+
+import com.fintech.enums.Category;
+import com.fintech.enums.Subcategory;
+
+public record CategorizationResult(Category category, Subcategory subcategory) {
+}
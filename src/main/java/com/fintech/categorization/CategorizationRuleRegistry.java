@@ -0,0 +1,105 @@
+package com.fintech.categorization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Holds the active {@link CompiledRuleSet}. Reloads parse and compile a complete new snapshot
+ * before publishing it with a single volatile write, so categorizing threads never block and
+ * never observe a partially built rule set. A rule file that fails to load leaves the current
+ * snapshot in place.
+ */
+@Component
+public class CategorizationRuleRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorizationRuleRegistry.class);
+
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+    private final Resource rulesResource;
+    private final Object reloadLock = new Object();
+
+    private volatile CompiledRuleSet current;
+    private long lastModified;
+
+    public CategorizationRuleRegistry(
+            ResourceLoader resourceLoader,
+            @Value("${app.categorization.rules-location:classpath:categorization-rules.yml}") String rulesLocation) {
+        this.rulesResource = resourceLoader.getResource(rulesLocation);
+        this.lastModified = modifiedTime();
+        this.current = load();
+        logger.info("Loaded categorization rules version {} ({} rules, {} keywords) from {}",
+                current.getVersion(), current.getRuleCount(), current.getKeywordCount(), rulesResource.getDescription());
+    }
+
+    public CompiledRuleSet current() {
+        return current;
+    }
+
+    public String getLocation() {
+        return rulesResource.getDescription();
+    }
+
+    public CompiledRuleSet reload() {
+        synchronized (reloadLock) {
+            long modified = modifiedTime();
+            CompiledRuleSet reloaded = load();
+            current = reloaded;
+            lastModified = modified;
+            logger.info("Reloaded categorization rules version {} ({} rules, {} keywords)",
+                    reloaded.getVersion(), reloaded.getRuleCount(), reloaded.getKeywordCount());
+            return reloaded;
+        }
+    }
+
+    // Only rule files on the file system can change underneath us; classpath rules need a redeploy anyway
+    @Scheduled(fixedDelayString = "${app.categorization.reload-check-interval-ms:30000}",
+            initialDelayString = "${app.categorization.reload-check-interval-ms:30000}")
+    public void reloadIfModified() {
+        if (!rulesResource.isFile()) {
+            return;
+        }
+
+        try {
+            synchronized (reloadLock) {
+                long modified = modifiedTime();
+                if (modified == lastModified) {
+                    return;
+                }
+                // Remember the broken version too, so it is reported once rather than on every check
+                lastModified = modified;
+                logger.info("Categorization rules file changed, reloading");
+                reload();
+            }
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to reload categorization rules, keeping version {}", current.getVersion(), e);
+        }
+    }
+
+    private CompiledRuleSet load() {
+        try (InputStream in = rulesResource.getInputStream()) {
+            RuleSetDefinition definition = yamlMapper.readValue(in, RuleSetDefinition.class);
+            return CompiledRuleSet.compile(definition);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                    "Failed to read categorization rules from " + rulesResource.getDescription(), e);
+        }
+    }
+
+    private long modifiedTime() {
+        try {
+            return rulesResource.isFile() ? rulesResource.lastModified() : 0L;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
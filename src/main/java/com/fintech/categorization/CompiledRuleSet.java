@@ -0,0 +1,196 @@
+package com.fintech.categorization;
+
+import com.fintech.enums.AmountSign;
+import com.fintech.enums.Category;
+import com.fintech.enums.SourceType;
+import com.fintech.enums.Subcategory;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, compiled form of a {@link RuleSetDefinition}. All keywords of all rules share one
+ * {@link KeywordMatcher}, so a description is scanned once and the ordered rules are then
+ * evaluated against the recorded matches. Instances are safe to share between threads.
+ */
+public final class CompiledRuleSet {
+
+    private static final String SEQUENCE_SEPARATOR = ".*";
+
+    private static final CategorizationResult UNMATCHED =
+            new CategorizationResult(Category.UNCATEGORIZED, Subcategory.OTHER);
+
+    private final String version;
+    private final Instant compiledAt = Instant.now();
+    private final int ruleCount;
+    private final KeywordMatcher matcher;
+    // Index 0 holds the rules for transactions without a source type, index ordinal + 1 the rest
+    private final CompiledRule[][] rulesBySourceType;
+
+    private CompiledRuleSet(String version, int ruleCount, KeywordMatcher matcher, CompiledRule[][] rulesBySourceType) {
+        this.version = version;
+        this.ruleCount = ruleCount;
+        this.matcher = matcher;
+        this.rulesBySourceType = rulesBySourceType;
+    }
+
+    public static CompiledRuleSet compile(RuleSetDefinition definition) {
+        Map<String, Integer> keywordIds = new LinkedHashMap<>();
+        List<RuleDefinition> ruleDefinitions = definition.getRules();
+        if (ruleDefinitions == null || ruleDefinitions.isEmpty()) {
+            throw new IllegalArgumentException("Rule set must define at least one rule");
+        }
+        List<CompiledRule> compiled = new ArrayList<>(ruleDefinitions.size());
+
+        for (RuleDefinition rule : ruleDefinitions) {
+            if (rule.getCategory() == null || rule.getSubcategory() == null) {
+                throw new IllegalArgumentException("Rule '" + rule.getName() + "' must define a category and subcategory");
+            }
+
+            List<SubcategoryRuleDefinition> subcategoryRules =
+                    rule.getSubcategories() == null ? List.of() : rule.getSubcategories();
+            Term[][] subcategoryTerms = new Term[subcategoryRules.size()][];
+            CategorizationResult[] subcategoryResults = new CategorizationResult[subcategoryRules.size()];
+            for (int i = 0; i < subcategoryRules.size(); i++) {
+                SubcategoryRuleDefinition subcategoryRule = subcategoryRules.get(i);
+                if (subcategoryRule.getSubcategory() == null) {
+                    throw new IllegalArgumentException("Rule '" + rule.getName() + "' has a subcategory rule without a subcategory");
+                }
+                subcategoryTerms[i] = compileTerms(subcategoryRule.getKeywords(), keywordIds);
+                subcategoryResults[i] = new CategorizationResult(rule.getCategory(), subcategoryRule.getSubcategory());
+            }
+
+            compiled.add(new CompiledRule(
+                    rule.getSourceType(),
+                    rule.getAmountSign(),
+                    compileTerms(rule.getKeywords(), keywordIds),
+                    new CategorizationResult(rule.getCategory(), rule.getSubcategory()),
+                    subcategoryTerms,
+                    subcategoryResults));
+        }
+
+        SourceType[] sourceTypes = SourceType.values();
+        CompiledRule[][] rulesBySourceType = new CompiledRule[sourceTypes.length + 1][];
+        rulesBySourceType[0] = compiled.stream()
+                .filter(rule -> rule.sourceType == null)
+                .toArray(CompiledRule[]::new);
+        for (SourceType sourceType : sourceTypes) {
+            rulesBySourceType[sourceType.ordinal() + 1] = compiled.stream()
+                    .filter(rule -> rule.sourceType == null || rule.sourceType == sourceType)
+                    .toArray(CompiledRule[]::new);
+        }
+
+        KeywordMatcher matcher = new KeywordMatcher(new ArrayList<>(keywordIds.keySet()));
+        return new CompiledRuleSet(definition.getVersion(), compiled.size(), matcher, rulesBySourceType);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Instant getCompiledAt() {
+        return compiledAt;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    public int getKeywordCount() {
+        return matcher.keywordCount();
+    }
+
+    /**
+     * @param description the transaction description, already lower-cased
+     */
+    public CategorizationResult categorize(SourceType sourceType, String description, BigDecimal amount) {
+        KeywordMatcher.Matches matches = matcher.scan(description);
+        int amountSignum = amount == null ? 0 : amount.signum();
+
+        for (CompiledRule rule : rulesBySourceType[sourceType == null ? 0 : sourceType.ordinal() + 1]) {
+            if (!rule.matchesAmount(amountSignum) || !anyMatch(rule.terms, matches)) {
+                continue;
+            }
+            for (int i = 0; i < rule.subcategoryTerms.length; i++) {
+                if (anyMatch(rule.subcategoryTerms[i], matches)) {
+                    return rule.subcategoryResults[i];
+                }
+            }
+            return rule.result;
+        }
+
+        return UNMATCHED;
+    }
+
+    // An empty term list is an unconditional match
+    private static boolean anyMatch(Term[] terms, KeywordMatcher.Matches matches) {
+        if (terms.length == 0) {
+            return true;
+        }
+        for (Term term : terms) {
+            if (term.matches(matches)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Term[] compileTerms(List<String> keywords, Map<String, Integer> keywordIds) {
+        if (keywords == null) {
+            return new Term[0];
+        }
+
+        Term[] terms = new Term[keywords.size()];
+        for (int i = 0; i < keywords.size(); i++) {
+            String keyword = keywords.get(i).toLowerCase();
+            int separator = keyword.indexOf(SEQUENCE_SEPARATOR);
+
+            if (separator < 0) {
+                terms[i] = new Term(keywordId(keyword, keywordIds), -1);
+            } else {
+                String first = keyword.substring(0, separator);
+                String second = keyword.substring(separator + SEQUENCE_SEPARATOR.length());
+                if (first.isEmpty() || second.isEmpty() || second.contains(SEQUENCE_SEPARATOR)) {
+                    throw new IllegalArgumentException("Unsupported keyword sequence: " + keywords.get(i));
+                }
+                terms[i] = new Term(keywordId(first, keywordIds), keywordId(second, keywordIds));
+            }
+        }
+        return terms;
+    }
+
+    private static int keywordId(String keyword, Map<String, Integer> keywordIds) {
+        if (keyword.isEmpty()) {
+            throw new IllegalArgumentException("Keywords must not be empty");
+        }
+        return keywordIds.computeIfAbsent(keyword, k -> keywordIds.size());
+    }
+
+    // A single keyword, or "first.*second" when second is not negative
+    private record Term(int first, int second) {
+
+        boolean matches(KeywordMatcher.Matches matches) {
+            return second < 0 ? matches.contains(first) : matches.containsInOrder(first, second);
+        }
+    }
+
+    private record CompiledRule(
+            SourceType sourceType,
+            AmountSign amountSign,
+            Term[] terms,
+            CategorizationResult result,
+            Term[][] subcategoryTerms,
+            CategorizationResult[] subcategoryResults) {
+
+        boolean matchesAmount(int amountSignum) {
+            if (amountSign == null) {
+                return true;
+            }
+            return amountSign == AmountSign.POSITIVE ? amountSignum > 0 : amountSignum < 0;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.fintech.categorization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed keyword list. A single left-to-right pass over the
+ * text records, for every keyword, where its first occurrence ends and where its last
+ * occurrence starts, which is enough to evaluate both plain keywords and "a.*b" sequences.
+ */
+public final class KeywordMatcher {
+
+    private static final int ASCII = 128;
+
+    private final int keywordCount;
+    private final int[] keywordLengths;
+    private final int[] asciiSymbols = new int[ASCII];
+    private final Map<Character, Integer> otherSymbols = new HashMap<>();
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final int[][] outputs;
+
+    public KeywordMatcher(List<String> keywords) {
+        this.keywordCount = keywords.size();
+        this.keywordLengths = new int[keywordCount];
+
+        // Symbol 0 is reserved for characters that appear in no keyword
+        int nextSymbol = 1;
+        for (String keyword : keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (symbolOf(c) == 0) {
+                    if (c < ASCII) {
+                        asciiSymbols[c] = nextSymbol++;
+                    } else {
+                        otherSymbols.put(c, nextSymbol++);
+                    }
+                }
+            }
+        }
+        this.alphabetSize = nextSymbol;
+
+        // Build the trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        trie.add(newRow());
+        nodeOutputs.add(new ArrayList<>());
+
+        for (int k = 0; k < keywordCount; k++) {
+            String keyword = keywords.get(k);
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must not be empty");
+            }
+            keywordLengths[k] = keyword.length();
+
+            int node = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int symbol = symbolOf(keyword.charAt(i));
+                int next = trie.get(node)[symbol];
+                if (next < 0) {
+                    next = trie.size();
+                    trie.add(newRow());
+                    nodeOutputs.add(new ArrayList<>());
+                    trie.get(node)[symbol] = next;
+                }
+                node = next;
+            }
+            nodeOutputs.get(node).add(k);
+        }
+
+        // Breadth-first pass turns the trie into a full DFA and merges suffix outputs
+        int nodeCount = trie.size();
+        int[] failure = new int[nodeCount];
+        this.transitions = new int[nodeCount * alphabetSize];
+        this.outputs = new int[nodeCount][];
+
+        Queue<Integer> pending = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int child = trie.get(0)[symbol];
+            if (child < 0) {
+                transitions[symbol] = 0;
+            } else {
+                transitions[symbol] = child;
+                failure[child] = 0;
+                pending.add(child);
+            }
+        }
+        outputs[0] = toArray(nodeOutputs.get(0));
+
+        while (!pending.isEmpty()) {
+            int node = pending.poll();
+            List<Integer> merged = new ArrayList<>(nodeOutputs.get(node));
+            for (int inherited : outputs[failure[node]]) {
+                merged.add(inherited);
+            }
+            outputs[node] = toArray(merged);
+
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int child = trie.get(node)[symbol];
+                int fallback = transitions[failure[node] * alphabetSize + symbol];
+                if (child < 0) {
+                    transitions[node * alphabetSize + symbol] = fallback;
+                } else {
+                    transitions[node * alphabetSize + symbol] = child;
+                    failure[child] = fallback;
+                    pending.add(child);
+                }
+            }
+        }
+    }
+
+    public int keywordCount() {
+        return keywordCount;
+    }
+
+    public Matches scan(String text) {
+        Matches matches = new Matches(keywordCount);
+        int state = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * alphabetSize + symbolOf(text.charAt(i))];
+            for (int keyword : outputs[state]) {
+                int end = i + 1;
+                if (matches.firstEnd[keyword] < 0) {
+                    matches.firstEnd[keyword] = end;
+                }
+                matches.lastStart[keyword] = end - keywordLengths[keyword];
+            }
+        }
+
+        return matches;
+    }
+
+    private int symbolOf(char c) {
+        if (c < ASCII) {
+            return asciiSymbols[c];
+        }
+        return otherSymbols.getOrDefault(c, 0);
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static final class Matches {
+
+        private final int[] firstEnd;
+        private final int[] lastStart;
+
+        private Matches(int keywordCount) {
+            this.firstEnd = new int[keywordCount];
+            this.lastStart = new int[keywordCount];
+            Arrays.fill(firstEnd, -1);
+            Arrays.fill(lastStart, -1);
+        }
+
+        public boolean contains(int keyword) {
+            return firstEnd[keyword] >= 0;
+        }
+
+        // True when some occurrence of "first" ends at or before some occurrence of "second" starts
+        public boolean containsInOrder(int first, int second) {
+            return firstEnd[first] >= 0 && lastStart[second] >= 0 && firstEnd[first] <= lastStart[second];
+        }
+    }
+}
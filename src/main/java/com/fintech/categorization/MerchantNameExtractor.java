@@ -0,0 +1,97 @@
+package com.fintech.categorization;
+
+/**
+ * Derives the merchant name stored with a transaction from its description: the description with
+ * every occurrence of "payment", "debit order", "subscription", "from", "to", "transfer" and "-"
+ * removed (ASCII case-insensitive, also inside words), trimmed and cut to 50 characters.
+ *
+ * Done in one pass over the description. Nothing is allocated when no keyword occurs and the
+ * description needs no trimming, which is the common case for card merchants.
+ */
+public final class MerchantNameExtractor {
+
+    private static final int MAX_LENGTH = 50;
+
+    private MerchantNameExtractor() {
+    }
+
+    // Returns null when nothing is left of the description
+    public static String extract(String description) {
+        int length = description.length();
+        StringBuilder stripped = null;
+        int copiedUpTo = 0;
+
+        int i = 0;
+        while (i < length) {
+            int matched = keywordLengthAt(description, i);
+            if (matched == 0) {
+                i++;
+                continue;
+            }
+
+            if (stripped == null) {
+                stripped = new StringBuilder(length);
+            }
+            stripped.append(description, copiedUpTo, i);
+            i += matched;
+            copiedUpTo = i;
+        }
+
+        CharSequence text = description;
+        if (stripped != null) {
+            stripped.append(description, copiedUpTo, length);
+            text = stripped;
+        }
+
+        // Same notion of whitespace as String.trim()
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        end = Math.min(end, start + MAX_LENGTH);
+        if (stripped == null && start == 0 && end == length) {
+            return description;
+        }
+        return text.subSequence(start, end).toString();
+    }
+
+    // Length of the keyword starting at position, or 0; keywords are tried in the order listed above
+    private static int keywordLengthAt(String text, int position) {
+        return switch (lowerAscii(text.charAt(position))) {
+            case 'p' -> matchLength(text, position, "payment");
+            case 'd' -> matchLength(text, position, "debit order");
+            case 's' -> matchLength(text, position, "subscription");
+            case 'f' -> matchLength(text, position, "from");
+            case 't' -> {
+                int to = matchLength(text, position, "to");
+                yield to > 0 ? to : matchLength(text, position, "transfer");
+            }
+            case '-' -> 1;
+            default -> 0;
+        };
+    }
+
+    private static int matchLength(String text, int position, String keyword) {
+        if (position + keyword.length() > text.length()) {
+            return 0;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (lowerAscii(text.charAt(position + i)) != keyword.charAt(i)) {
+                return 0;
+            }
+        }
+        return keyword.length();
+    }
+
+    private static char lowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
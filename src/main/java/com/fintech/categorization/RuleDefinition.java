@@ -0,0 +1,27 @@
+package com.fintech.categorization;
+
+import com.fintech.enums.AmountSign;
+import com.fintech.enums.Category;
+import com.fintech.enums.SourceType;
+import com.fintech.enums.Subcategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleDefinition {
+    private String name;
+    // Conditions; a null/empty condition matches every transaction
+    private SourceType sourceType;
+    private AmountSign amountSign;
+    private List<String> keywords = new ArrayList<>();
+    // Outcome; the first matching subcategory rule overrides the default subcategory
+    private Category category;
+    private Subcategory subcategory;
+    private List<SubcategoryRuleDefinition> subcategories = new ArrayList<>();
+}
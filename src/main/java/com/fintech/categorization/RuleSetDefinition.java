@@ -0,0 +1,17 @@
+package com.fintech.categorization;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleSetDefinition {
+    private String version;
+    // Evaluated in order; the first matching rule wins
+    private List<RuleDefinition> rules = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.fintech.categorization;
+
+import com.fintech.enums.Subcategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubcategoryRuleDefinition {
+    private List<String> keywords = new ArrayList<>();
+    private Subcategory subcategory;
+}
@@ -0,0 +1,75 @@
+package com.fintech.controller;
+
+import com.fintech.analytics.AnalyticsQuery;
+import com.fintech.dto.AnalyticsResultDTO;
+import com.fintech.enums.AnalyticsDimension;
+import com.fintech.enums.Category;
+import com.fintech.enums.SourceType;
+import com.fintech.enums.Subcategory;
+import com.fintech.service.TransactionAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/analytics")
+@Tag(name = "Analytics", description = "Ad-hoc group-bys over the in-memory columnar transaction snapshot")
+public class AnalyticsController {
+
+    private final TransactionAnalyticsService analyticsService;
+
+    public AnalyticsController(TransactionAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @GetMapping("/group-by")
+    @Operation(summary = "Group and sum transactions",
+            description = "Transaction count and total amount per combination of the requested dimensions, over " +
+                    "the transactions matching every filter. Scans the in-memory snapshot in parallel instead of " +
+                    "querying the database; each filter accepts a comma-separated list")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Groups computed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters"),
+            @ApiResponse(responseCode = "503", description = "The columnar snapshot is disabled or not loaded")
+    })
+    public ResponseEntity<AnalyticsResultDTO> groupBy(
+            @Parameter(description = "Dimensions to group by (CATEGORY/SUBCATEGORY/SOURCE_TYPE/MONTH/ACCOUNT); " +
+                    "none gives a single total")
+            @RequestParam(required = false) List<AnalyticsDimension> groupBy,
+
+            @Parameter(description = "Filter by category")
+            @RequestParam(required = false) Set<Category> category,
+
+            @Parameter(description = "Filter by subcategory")
+            @RequestParam(required = false) Set<Subcategory> subcategory,
+
+            @Parameter(description = "Filter by source type")
+            @RequestParam(required = false) Set<SourceType> sourceType,
+
+            @Parameter(description = "First day to include (ISO format: yyyy-MM-dd)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+
+            @Parameter(description = "Last day to include (ISO format: yyyy-MM-dd)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+
+            @Parameter(description = "Filter by account number")
+            @RequestParam(required = false) String accountNumber) {
+        AnalyticsQuery query =
+                new AnalyticsQuery(groupBy, category, subcategory, sourceType, startDate, endDate, accountNumber);
+        return ResponseEntity.ok(analyticsService.groupBy(query));
+    }
+}
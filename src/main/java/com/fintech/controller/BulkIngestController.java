@@ -0,0 +1,46 @@
+package com.fintech.controller;
+
+import com.fintech.dto.BulkIngestResultDTO;
+import com.fintech.service.TransactionBulkIngestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/bulk-ingest")
+@Tag(name = "Bulk Ingest", description = "APIs for backfilling historical transactions")
+public class BulkIngestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIngestController.class);
+
+    private final TransactionBulkIngestService bulkIngestService;
+
+    public BulkIngestController(TransactionBulkIngestService bulkIngestService) {
+        this.bulkIngestService = bulkIngestService;
+    }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Bulk ingest historical transactions",
+            description = "Stream raw transactions (NDJSON or a JSON array), categorize them and load them with " +
+                    "PostgreSQL COPY. Transaction ids that already exist are skipped.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bulk ingest completed"),
+            @ApiResponse(responseCode = "400", description = "Malformed payload")
+    })
+    public ResponseEntity<BulkIngestResultDTO> bulkIngest(HttpServletRequest request) throws IOException {
+        logger.info("Bulk ingest requested ({} bytes)", request.getContentLengthLong());
+        BulkIngestResultDTO result = bulkIngestService.ingest(request.getInputStream());
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,62 @@
+package com.fintech.controller;
+
+import com.fintech.categorization.CategorizationRuleRegistry;
+import com.fintech.categorization.CompiledRuleSet;
+import com.fintech.dto.RuleSetInfoDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/categorization-rules")
+@Tag(name = "Categorization Rules", description = "APIs for inspecting and reloading the categorization rule set")
+public class CategorizationRuleController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorizationRuleController.class);
+
+    private final CategorizationRuleRegistry ruleRegistry;
+
+    public CategorizationRuleController(CategorizationRuleRegistry ruleRegistry) {
+        this.ruleRegistry = ruleRegistry;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get active rule set",
+            description = "Describe the categorization rule set currently used by the consumers")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rule set retrieved successfully")
+    })
+    public ResponseEntity<RuleSetInfoDTO> getActiveRuleSet() {
+        return ResponseEntity.ok(toInfo(ruleRegistry.current()));
+    }
+
+    @PostMapping("/reload")
+    @Operation(summary = "Reload rule set",
+            description = "Re-read and compile the rule file, then atomically replace the active rule set")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rule set reloaded successfully"),
+            @ApiResponse(responseCode = "400", description = "Rule file is invalid; the active rule set is unchanged")
+    })
+    public ResponseEntity<RuleSetInfoDTO> reloadRuleSet() {
+        logger.info("Reloading categorization rules from {}", ruleRegistry.getLocation());
+        return ResponseEntity.ok(toInfo(ruleRegistry.reload()));
+    }
+
+    private RuleSetInfoDTO toInfo(CompiledRuleSet ruleSet) {
+        return new RuleSetInfoDTO(
+                ruleSet.getVersion(),
+                ruleSet.getRuleCount(),
+                ruleSet.getKeywordCount(),
+                ruleSet.getCompiledAt(),
+                ruleRegistry.getLocation()
+        );
+    }
+}
@@ -0,0 +1,35 @@
+package com.fintech.controller;
+
+import com.fintech.dto.QueueStatusDTO;
+import com.fintech.queue.TransactionPublisher;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/queue")
+@Tag(name = "Queue", description = "APIs for inspecting the transaction queue")
+public class QueueController {
+
+    private final TransactionPublisher publisher;
+
+    public QueueController(TransactionPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get queue status",
+            description = "Queue depth, fill ratio and overflow counters. Upstream ingestion should throttle " +
+                    "itself while aboveHighWatermark is true.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Queue status retrieved successfully")
+    })
+    public ResponseEntity<QueueStatusDTO> getStatus() {
+        return ResponseEntity.ok(publisher.status());
+    }
+}
@@ -0,0 +1,35 @@
+package com.fintech.controller;
+
+import com.fintech.dto.RollupRebuildResultDTO;
+import com.fintech.service.TransactionRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/rollups")
+@Tag(name = "Rollups", description = "APIs for maintaining the daily and monthly transaction rollups")
+public class RollupController {
+
+    private final TransactionRollupService rollupService;
+
+    public RollupController(TransactionRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild rollups",
+            description = "Recomputes every daily and monthly rollup from the transactions table. Use after loading " +
+                    "transactions outside the application. New transactions wait while the rebuild runs.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rollups rebuilt successfully")
+    })
+    public ResponseEntity<RollupRebuildResultDTO> rebuild() {
+        return ResponseEntity.ok(rollupService.rebuild());
+    }
+}
@@ -1,31 +1,55 @@
 package com.fintech.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fintech.dto.AccountSummaryDTO;
+import com.fintech.dto.BatchIngestResultDTO;
+import com.fintech.dto.CursorPageDTO;
 import com.fintech.dto.AggregationResultDTO;
+import com.fintech.dto.PeriodSummaryDTO;
 import com.fintech.dto.TransactionDTO;
 import com.fintech.dto.TransactionSummaryDTO;
 import com.fintech.entity.Transaction;
 import com.fintech.enums.Category;
+import com.fintech.enums.PeriodGranularity;
 import com.fintech.enums.SourceType;
 import com.fintech.exception.TransactionNotFoundException;
 import com.fintech.repository.TransactionRepository;
 import com.fintech.service.TransactionAggregationService;
+import com.fintech.service.TransactionBatchIngestService;
+import com.fintech.service.TransactionExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -36,14 +60,50 @@ public class TransactionController {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
 
+    private static final String CSV_HEADER = "id,transactionId,clientId,accountNumber,sourceType,description,amount," +
+            "transactionDate,category,subcategory,merchantName,createdAt,updatedAt";
+
     private final TransactionRepository transactionRepository;
     private final TransactionAggregationService aggregationService;
+    private final TransactionExportService exportService;
+    private final TransactionBatchIngestService batchIngestService;
+    private final ObjectMapper objectMapper;
 
     public TransactionController(
             TransactionRepository transactionRepository,
-            TransactionAggregationService aggregationService) {
+            TransactionAggregationService aggregationService,
+            TransactionExportService exportService,
+            TransactionBatchIngestService batchIngestService,
+            ObjectMapper objectMapper) {
         this.transactionRepository = transactionRepository;
         this.aggregationService = aggregationService;
+        this.exportService = exportService;
+        this.batchIngestService = batchIngestService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Submit a batch of raw transactions",
+            description = "Stream raw transactions (NDJSON or a JSON array) onto the processing queue. Each item is " +
+                    "validated on its own and reported as accepted or rejected; accepted items are categorized and " +
+                    "saved asynchronously by the consumers")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see the per-item results"),
+            @ApiResponse(responseCode = "400", description = "Malformed payload"),
+            @ApiResponse(responseCode = "503", description = "Queue is full and nothing was accepted; retry after the Retry-After delay")
+    })
+    public ResponseEntity<BatchIngestResultDTO> submitBatch(HttpServletRequest request) throws IOException {
+        logger.debug("Batch ingest requested ({} bytes)", request.getContentLengthLong());
+        BatchIngestResultDTO result = batchIngestService.ingest(request.getInputStream());
+
+        if (!result.isQueueFull()) {
+            return ResponseEntity.ok(result);
+        }
+
+        // Items turned away for a full queue can be resubmitted once it has drained
+        return ResponseEntity.status(result.getAccepted() == 0 ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(batchIngestService.getRetryAfterSeconds()))
+                .body(result);
     }
 
     @GetMapping
@@ -86,40 +146,160 @@ public class TransactionController {
         logger.info("Fetching transactions with filters - category: {}, sourceType: {}, accountNumber: {}, startDate: {}, endDate: {}",
                 category, sourceType, accountNumber, startDate, endDate);
 
-        // Validate date range
-        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
-            throw new IllegalArgumentException("Start date must be before end date");
-        }
+        validateDateRange(startDate, endDate);
 
         Sort sort = sortDir.equalsIgnoreCase("asc") ?
                 Sort.by(sortBy).ascending() :
                 Sort.by(sortBy).descending();
 
-        Pageable pageable = PageRequest.of(page, size, sort);
+        // id as tie-breaker keeps LIMIT/OFFSET pages stable when many rows share the sort value
+        Pageable pageable = PageRequest.of(page, size, sort.and(Sort.by("id")));
 
-        List<Transaction> filteredTransactions;
+        Page<Transaction> transactions;
 
         if (category != null || sourceType != null || accountNumber != null || startDate != null || endDate != null) {
-            filteredTransactions = transactionRepository.findByFilters(
-                    category, sourceType, accountNumber, startDate, endDate);
+            transactions = transactionRepository.findByFilters(
+                    category, sourceType, accountNumber, startDate, endDate, pageable);
         } else {
-            filteredTransactions = transactionRepository.findAll(sort);
+            transactions = transactionRepository.findAll(pageable);
         }
 
-        // Convert to DTOs
-        List<TransactionDTO> dtoList = filteredTransactions.stream()
+        return ResponseEntity.ok(transactions.map(this::convertToDTO));
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Walk transactions with a cursor",
+            description = "Keyset pagination over (transactionDate, id). Pass the returned nextCursor to get the " +
+                    "following page; each page costs the same however deep it is")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transactions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters or cursor")
+    })
+    public ResponseEntity<CursorPageDTO<TransactionDTO>> getTransactionsByCursor(
+            @Parameter(description = "Filter by category")
+            @RequestParam(required = false) Category category,
+
+            @Parameter(description = "Filter by source type")
+            @RequestParam(required = false) SourceType sourceType,
+
+            @Parameter(description = "Filter by account number")
+            @RequestParam(required = false) String accountNumber,
+
+            @Parameter(description = "Start date for filtering (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+
+            @Parameter(description = "End date for filtering (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+
+            @Parameter(description = "Cursor returned by the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "20") int size,
+
+            @Parameter(description = "Sort direction by transaction date (asc/desc)")
+            @RequestParam(defaultValue = "desc") String sortDir) {
+
+        logger.info("Fetching transactions by cursor - category: {}, sourceType: {}, accountNumber: {}, startDate: {}, endDate: {}",
+                category, sourceType, accountNumber, startDate, endDate);
+
+        validateDateRange(startDate, endDate);
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+
+        boolean ascending = sortDir.equalsIgnoreCase("asc");
+        TransactionCursor position = cursor != null
+                ? TransactionCursor.decode(cursor)
+                : (ascending ? TransactionCursor.FIRST_ASCENDING : TransactionCursor.FIRST_DESCENDING);
+
+        Pageable limit = PageRequest.of(0, size);
+        Slice<Transaction> transactions = ascending
+                ? transactionRepository.findByFiltersAfter(category, sourceType, accountNumber, startDate, endDate,
+                        position.transactionDate(), position.id(), limit)
+                : transactionRepository.findByFiltersBefore(category, sourceType, accountNumber, startDate, endDate,
+                        position.transactionDate(), position.id(), limit);
+
+        List<TransactionDTO> content = transactions.getContent().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
 
-        // Manual pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), dtoList.size());
-        List<TransactionDTO> pageContent = dtoList.subList(start, end);
+        String nextCursor = null;
+        if (transactions.hasNext()) {
+            Transaction last = transactions.getContent().get(transactions.getNumberOfElements() - 1);
+            nextCursor = new TransactionCursor(last.getTransactionDate(), last.getId()).encode();
+        }
+
+        return ResponseEntity.ok(new CursorPageDTO<>(content, content.size(), nextCursor));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export transactions",
+            description = "Stream every transaction matching the filters as NDJSON or CSV, ordered by transaction date. " +
+                    "Rows are written as they are read from the database, so exports of any size use constant memory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "Filter by category")
+            @RequestParam(required = false) Category category,
+
+            @Parameter(description = "Filter by source type")
+            @RequestParam(required = false) SourceType sourceType,
+
+            @Parameter(description = "Filter by account number")
+            @RequestParam(required = false) String accountNumber,
+
+            @Parameter(description = "Start date for filtering (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+
+            @Parameter(description = "End date for filtering (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+
+            @Parameter(description = "Export format (ndjson/csv)")
+            @RequestParam(defaultValue = "ndjson") String format) {
 
-        Page<TransactionDTO> transactionPage = new org.springframework.data.domain.PageImpl<>(
-                pageContent, pageable, dtoList.size());
+        logger.info("Exporting transactions as {} - category: {}, sourceType: {}, accountNumber: {}, startDate: {}, endDate: {}",
+                format, category, sourceType, accountNumber, startDate, endDate);
 
-        return ResponseEntity.ok(transactionPage);
+        validateDateRange(startDate, endDate);
+
+        boolean csv = format.equalsIgnoreCase("csv");
+        if (!csv && !format.equalsIgnoreCase("ndjson")) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+            if (csv) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                exportService.export(category, sourceType, accountNumber, startDate, endDate,
+                        transaction -> writeCsvRow(writer, transaction));
+            } else {
+                SequenceWriter rows = objectMapper.writerFor(TransactionDTO.class)
+                        .withRootValueSeparator("\n")
+                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .writeValues(writer);
+                exportService.export(category, sourceType, accountNumber, startDate, endDate,
+                        transaction -> writeJsonRow(rows, transaction));
+                rows.flush();
+            }
+
+            writer.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -142,28 +322,150 @@ public class TransactionController {
 
     @GetMapping("/summary")
     @Operation(summary = "Get summary by category",
-            description = "Get transaction totals grouped by category")
+            description = "Get transaction totals grouped by category, optionally restricted to a date range and source type")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Summary generated successfully")
+            @ApiResponse(responseCode = "200", description = "Summary generated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters")
     })
-    public ResponseEntity<List<TransactionSummaryDTO>> getSummaryByCategory() {
-        logger.info("Generating transaction summary by category");
-        List<TransactionSummaryDTO> summary = aggregationService.getSummaryByCategory();
+    public ResponseEntity<List<TransactionSummaryDTO>> getSummaryByCategory(
+            @Parameter(description = "Start date for filtering (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+
+            @Parameter(description = "End date for filtering (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+
+            @Parameter(description = "Filter by source type")
+            @RequestParam(required = false) SourceType sourceType) {
+        logger.info("Generating transaction summary by category - startDate: {}, endDate: {}, sourceType: {}",
+                startDate, endDate, sourceType);
+        validateDateRange(startDate, endDate);
+
+        List<TransactionSummaryDTO> summary = aggregationService.getSummaryByCategory(startDate, endDate, sourceType);
         return ResponseEntity.ok(summary);
     }
 
     @GetMapping("/summary/by-account")
     @Operation(summary = "Get summary by account",
-            description = "Get transaction totals grouped by account number")
+            description = "Get transaction totals grouped by account number, optionally restricted to a date range and source type")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Summary generated successfully")
+            @ApiResponse(responseCode = "200", description = "Summary generated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters")
     })
-    public ResponseEntity<List<AccountSummaryDTO>> getSummaryByAccount() {
-        logger.info("Generating transaction summary by account");
-        List<AccountSummaryDTO> summary = aggregationService.getSummaryByAccount();
+    public ResponseEntity<List<AccountSummaryDTO>> getSummaryByAccount(
+            @Parameter(description = "Start date for filtering (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+
+            @Parameter(description = "End date for filtering (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+
+            @Parameter(description = "Filter by source type")
+            @RequestParam(required = false) SourceType sourceType) {
+        logger.info("Generating transaction summary by account - startDate: {}, endDate: {}, sourceType: {}",
+                startDate, endDate, sourceType);
+        validateDateRange(startDate, endDate);
+
+        List<AccountSummaryDTO> summary = aggregationService.getSummaryByAccount(startDate, endDate, sourceType);
         return ResponseEntity.ok(summary);
     }
 
+    @GetMapping("/summary/by-period")
+    @Operation(summary = "Get summary by period",
+            description = "Get daily or monthly totals (count, sum, min and max) per account, category and subcategory, " +
+                    "served from pre-aggregated rollups. Restricting to an account or a date range is strongly recommended")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Summary generated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters")
+    })
+    public ResponseEntity<List<PeriodSummaryDTO>> getSummaryByPeriod(
+            @Parameter(description = "Period length (DAY/MONTH)")
+            @RequestParam(defaultValue = "MONTH") PeriodGranularity granularity,
+
+            @Parameter(description = "First day to include (ISO format: yyyy-MM-dd)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+
+            @Parameter(description = "Last day to include (ISO format: yyyy-MM-dd)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+
+            @Parameter(description = "Filter by account number")
+            @RequestParam(required = false) String accountNumber,
+
+            @Parameter(description = "Filter by category")
+            @RequestParam(required = false) Category category) {
+        logger.info("Generating transaction summary by period - granularity: {}, startDate: {}, endDate: {}, " +
+                "accountNumber: {}, category: {}", granularity, startDate, endDate, accountNumber, category);
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+
+        List<PeriodSummaryDTO> summary =
+                aggregationService.getSummaryByPeriod(granularity, startDate, endDate, accountNumber, category);
+        return ResponseEntity.ok(summary);
+    }
+
+    private void validateDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+    }
+
+    private void writeJsonRow(SequenceWriter rows, Transaction transaction) {
+        try {
+            rows.write(convertToDTO(transaction));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvRow(Writer writer, Transaction transaction) {
+        try {
+            writer.write(String.valueOf(transaction.getId()));
+            writer.write(',');
+            writer.write(csvText(transaction.getTransactionId()));
+            writer.write(',');
+            writer.write(csvText(transaction.getClientId()));
+            writer.write(',');
+            writer.write(csvText(transaction.getAccountNumber()));
+            writer.write(',');
+            writer.write(transaction.getSourceType().name());
+            writer.write(',');
+            writer.write(csvText(transaction.getDescription()));
+            writer.write(',');
+            writer.write(transaction.getAmount().toPlainString());
+            writer.write(',');
+            writer.write(String.valueOf(transaction.getTransactionDate()));
+            writer.write(',');
+            writer.write(transaction.getCategory().name());
+            writer.write(',');
+            writer.write(transaction.getSubcategory().name());
+            writer.write(',');
+            writer.write(csvText(transaction.getMerchantName()));
+            writer.write(',');
+            writer.write(String.valueOf(transaction.getCreatedAt()));
+            writer.write(',');
+            writer.write(String.valueOf(transaction.getUpdatedAt()));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Quotes only when needed so the common case stays a plain value
+    private String csvText(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
     private TransactionDTO convertToDTO(Transaction transaction) {
         return new TransactionDTO(
                 transaction.getId(),
@@ -181,4 +483,30 @@ public class TransactionController {
                 transaction.getUpdatedAt()
         );
     }
-}
\ No newline at end of file
+
+    // Opaque keyset position; the sentinels sort before/after every real transaction
+    private record TransactionCursor(LocalDateTime transactionDate, Long id) {
+
+        static final TransactionCursor FIRST_DESCENDING =
+                new TransactionCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+        static final TransactionCursor FIRST_ASCENDING =
+                new TransactionCursor(LocalDateTime.of(1, 1, 1, 0, 0), Long.MIN_VALUE);
+
+        String encode() {
+            String raw = transactionDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static TransactionCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new TransactionCursor(
+                        LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
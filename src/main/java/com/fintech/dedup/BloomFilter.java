@@ -0,0 +1,90 @@
+package com.fintech.dedup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings. Sized for an expected number of insertions at a target
+ * false-positive rate; adding more than that still works, but the false-positive rate climbs.
+ * Index positions come from double hashing of one 64-bit hash (Kirsch and Mitzenmacher).
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Bloom filter needs expectedInsertions >= 1 and 0 < falsePositiveRate < 1");
+        }
+
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long wordCount = (bits + 63) / 64;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter for " + expectedInsertions + " insertions is too large");
+        }
+
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitCount = wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Adds the value and reports whether it was definitely new. False means every bit was already
+     * set: the value was probably added before, or this is a false positive.
+     */
+    boolean put(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L);
+
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            changed |= setBit(bit);
+        }
+        return changed;
+    }
+
+    long sizeInBytes() {
+        return bitCount / 8;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    private boolean setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word = words.get(index);
+        while ((word & mask) == 0) {
+            long witness = words.compareAndExchange(index, word, word | mask);
+            if (witness == word) {
+                return true;
+            }
+            word = witness;
+        }
+        return false;
+    }
+
+    // FNV-1a over the UTF-16 chars, then a full avalanche so every bit depends on every char
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3 fmix64 finalizer
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
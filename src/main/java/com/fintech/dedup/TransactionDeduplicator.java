@@ -0,0 +1,161 @@
+package com.fintech.dedup;
+
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.entity.Transaction;
+import com.fintech.repository.TransactionJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drops replayed transactions before they are categorized. Every transaction id seen so far, seeded
+ * from the database at startup, goes into a Bloom filter. An id the filter has never seen is new and
+ * costs nothing more; only a probable hit is checked against the database, which also weeds out the
+ * filter's false positives.
+ *
+ * This is a fast path, not the guarantee: an id that is still on its way to the database passes the
+ * check, so the insert itself skips duplicates with ON CONFLICT DO NOTHING.
+ */
+@Component
+public class TransactionDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionDeduplicator.class);
+
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final boolean enabled;
+    private final long expectedIds;
+    private final BloomFilter seenIds;
+    private final AtomicLong added = new AtomicLong();
+
+    private final Counter duplicates;
+    private final Counter databaseChecks;
+    private final Counter falsePositives;
+
+    public TransactionDeduplicator(
+            TransactionJdbcRepository transactionJdbcRepository,
+            @Value("${app.dedup.enabled:true}") boolean enabled,
+            @Value("${app.dedup.expected-ids:10000000}") long expectedIds,
+            @Value("${app.dedup.false-positive-rate:0.01}") double falsePositiveRate,
+            MeterRegistry meterRegistry) {
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.enabled = enabled;
+        this.expectedIds = expectedIds;
+        this.seenIds = enabled ? new BloomFilter(expectedIds, falsePositiveRate) : null;
+
+        this.duplicates = Counter.builder("transaction.dedup")
+                .description("Transactions dropped because their id was already processed")
+                .tag("outcome", "duplicate")
+                .register(meterRegistry);
+        this.databaseChecks = Counter.builder("transaction.dedup")
+                .description("Probable duplicates looked up in the database")
+                .tag("outcome", "database_check")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("transaction.dedup")
+                .description("Probable duplicates the database showed to be new")
+                .tag("outcome", "false_positive")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void seed() {
+        if (!enabled) {
+            logger.info("Transaction dedup filter disabled; duplicates are only skipped by the insert");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        transactionJdbcRepository.forEachTransactionId(this::add);
+
+        logger.info("Seeded transaction dedup filter with {} ids in {} ms ({} KB, {} hashes)",
+                added.get(), System.currentTimeMillis() - started, seenIds.sizeInBytes() / 1024, seenIds.hashCount());
+    }
+
+    public boolean isDuplicate(RawTransactionDTO transaction) {
+        return filterDuplicates(List.of(transaction)).isEmpty();
+    }
+
+    /**
+     * Returns the transactions whose id has not been processed before, in their original order. A
+     * repeated id within the list keeps only its first occurrence.
+     */
+    public List<RawTransactionDTO> filterDuplicates(List<RawTransactionDTO> transactions) {
+        if (!enabled) {
+            return transactions;
+        }
+
+        List<RawTransactionDTO> candidates = new ArrayList<>(transactions.size());
+        Set<String> batchIds = new HashSet<>();
+        Set<String> probableIds = new HashSet<>();
+
+        for (RawTransactionDTO transaction : transactions) {
+            String transactionId = transaction.getTransactionId();
+            if (transactionId == null) {
+                // Left for validation further on to reject
+                candidates.add(transaction);
+            } else if (!batchIds.add(transactionId)) {
+                duplicates.increment();
+            } else {
+                if (!add(transactionId)) {
+                    probableIds.add(transactionId);
+                }
+                candidates.add(transaction);
+            }
+        }
+
+        if (probableIds.isEmpty()) {
+            return candidates;
+        }
+
+        databaseChecks.increment(probableIds.size());
+        Set<String> existing = transactionJdbcRepository.findExistingTransactionIds(probableIds);
+        falsePositives.increment(probableIds.size() - existing.size());
+        if (existing.isEmpty()) {
+            return candidates;
+        }
+
+        List<RawTransactionDTO> fresh = new ArrayList<>(candidates.size());
+        for (RawTransactionDTO transaction : candidates) {
+            if (transaction.getTransactionId() != null && existing.contains(transaction.getTransactionId())) {
+                duplicates.increment();
+                logger.debug("Dropped duplicate transaction {}", transaction.getTransactionId());
+            } else {
+                fresh.add(transaction);
+            }
+        }
+        return fresh;
+    }
+
+    // For transactions saved without passing through filterDuplicates, such as a bulk ingest
+    public void recordSaved(Transaction transaction) {
+        if (enabled) {
+            add(transaction.getTransactionId());
+        }
+    }
+
+    private boolean add(String transactionId) {
+        if (seenIds.put(transactionId)) {
+            if (added.incrementAndGet() == expectedIds + 1) {
+                warnIfOverCapacity();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void warnIfOverCapacity() {
+        if (added.get() > expectedIds) {
+            logger.warn("Transaction dedup filter holds {} ids, more than the {} it was sized for; raise " +
+                    "app.dedup.expected-ids to keep false positives (and database checks) down", added.get(), expectedIds);
+        }
+    }
+}
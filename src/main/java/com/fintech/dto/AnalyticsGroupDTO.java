@@ -0,0 +1,27 @@
+package com.fintech.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fintech.enums.Category;
+import com.fintech.enums.SourceType;
+import com.fintech.enums.Subcategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Only the dimensions that were grouped by are set
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalyticsGroupDTO {
+    private Category category;
+    private Subcategory subcategory;
+    private SourceType sourceType;
+    // yyyy-MM
+    private String month;
+    private String accountNumber;
+    private Long transactionCount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,16 @@
+package com.fintech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsResultDTO {
+    private long rowsScanned;
+    private long elapsedMillis;
+    private List<AnalyticsGroupDTO> groups;
+}
@@ -0,0 +1,20 @@
+package com.fintech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchIngestResultDTO {
+    private int received;
+    private int accepted;
+    private int rejected;
+    // True when items were turned away because the queue was full; retry those later
+    private boolean queueFull;
+    private long elapsedMillis;
+    private List<BatchItemResultDTO> items;
+}
@@ -0,0 +1,17 @@
+package com.fintech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIngestResultDTO {
+    private long rowsRead;
+    private long rowsInserted;
+    private long duplicatesSkipped;
+    private long rowsRejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
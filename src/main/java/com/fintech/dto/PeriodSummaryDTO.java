@@ -0,0 +1,24 @@
+package com.fintech.dto;
+
+import com.fintech.enums.Category;
+import com.fintech.enums.Subcategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodSummaryDTO {
+    private LocalDate periodStart;
+    private String accountNumber;
+    private Category category;
+    private Subcategory subcategory;
+    private Long transactionCount;
+    private BigDecimal totalAmount;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+}
@@ -0,0 +1,20 @@
+package com.fintech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueStatusDTO {
+    private int size;
+    private int capacity;
+    private double fillRatio;
+    private double highWatermark;
+    private boolean aboveHighWatermark;
+    private String overflowPolicy;
+    private int spilled;
+    private long rejectedTotal;
+    private long spilledTotal;
+}
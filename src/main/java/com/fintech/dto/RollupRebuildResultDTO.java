@@ -0,0 +1,13 @@
+package com.fintech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildResultDTO {
+    private long rollupRows;
+    private long elapsedMillis;
+}
@@ -0,0 +1,18 @@
+package com.fintech.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleSetInfoDTO {
+    private String version;
+    private int ruleCount;
+    private int keywordCount;
+    private Instant compiledAt;
+    private String location;
+}
@@ -0,0 +1,46 @@
+package com.fintech.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transaction the consumers gave up on: the message as it was published, the stage it failed in
+ * and why. Written by {@link com.fintech.service.TransactionDeadLetterService}.
+ */
+@Entity
+@Table(name = "transaction_dead_letters",
+        indexes = @Index(name = "idx_dead_letter_transaction_id", columnList = "transactionId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterTransaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String transactionId;
+
+    // TransactionPipelineMetrics.STAGE_CATEGORIZE or STAGE_SAVE
+    @Column(nullable = false)
+    private String stage;
+
+    @Column(nullable = false)
+    private String errorType;
+
+    @Column(length = 2000)
+    private String errorMessage;
+
+    // The RawTransactionDTO as JSON
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime failedAt;
+}
@@ -16,6 +16,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "transactions", indexes = {
         @Index(name = "idx_transaction_date", columnList = "transactionDate"),
+        @Index(name = "idx_transaction_date_id", columnList = "transactionDate, id"),
         @Index(name = "idx_category", columnList = "category"),
         @Index(name = "idx_source_type", columnList = "sourceType"),
         @Index(name = "idx_account_number", columnList = "accountNumber")
@@ -0,0 +1,63 @@
+package com.fintech.entity;
+
+import com.fintech.enums.Category;
+import com.fintech.enums.PeriodGranularity;
+import com.fintech.enums.Subcategory;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totals of the transactions of one account, category and subcategory within a day or a month.
+ * Written only with SQL by {@link com.fintech.repository.TransactionJdbcRepository}: incrementally in the
+ * same statement that inserts the transactions, and from scratch by a rebuild.
+ */
+@Entity
+@Table(name = "transaction_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_period_account_category",
+                columnNames = {"granularity", "periodStart", "accountNumber", "category", "subcategory"}),
+        indexes = @Index(name = "idx_rollup_account_period", columnList = "granularity, accountNumber, periodStart"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PeriodGranularity granularity;
+
+    // First day of the day or month
+    @Column(nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Category category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Subcategory subcategory;
+
+    @Column(nullable = false)
+    private Long transactionCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal minAmount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal maxAmount;
+}
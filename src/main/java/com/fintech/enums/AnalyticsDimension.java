@@ -0,0 +1,9 @@
+package com.fintech.enums;
+
+public enum AnalyticsDimension {
+    CATEGORY,
+    SUBCATEGORY,
+    SOURCE_TYPE,
+    MONTH,
+    ACCOUNT
+}
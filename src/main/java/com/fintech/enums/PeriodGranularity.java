@@ -0,0 +1,6 @@
+package com.fintech.enums;
+
+public enum PeriodGranularity {
+    DAY,
+    MONTH
+}
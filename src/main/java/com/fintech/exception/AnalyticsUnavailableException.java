@@ -0,0 +1,8 @@
+package com.fintech.exception;
+
+public class AnalyticsUnavailableException extends RuntimeException {
+
+    public AnalyticsUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.fintech.exception;
+
+public class QueueFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public QueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,340 @@
+package com.fintech.loadgen;
+
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.entity.Transaction;
+import com.fintech.enums.SourceType;
+import com.fintech.exception.QueueFullException;
+import com.fintech.queue.TransactionPublisher;
+import jakarta.annotation.PreDestroy;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes synthetic transactions at a configured rate for capacity testing, and measures how long
+ * each one takes to be committed to the database.
+ *
+ * Every transaction has an intended publish time taken from the {@link RateProfile} schedule. Response
+ * time is measured from that intended time rather than from when it was actually published, so a
+ * stalled publisher (a full queue, a slow database) shows up as latency instead of silently lowering the
+ * rate: the coordinated-omission correction. Service time, from the actual publish, is reported next to
+ * it; the gap between the two is time spent waiting to get into the queue.
+ *
+ * Runs when app.producer.mode is "load". Writes HdrHistogram percentile reports for both to the report
+ * directory when the run ends.
+ */
+@Component
+public class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final DateTimeFormatter REPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String[] CARD_MERCHANTS = {
+            "Woolworths", "Checkers", "Pick n Pay", "Spar", "Shell V-Power", "Engen", "BP Express", "Uber Trip",
+            "Bolt Ride", "Nando's", "McDonald's", "KFC", "Mr Price", "Takealot.com", "Dis-Chem", "Clicks"
+    };
+    private static final String[] DEBIT_ORDER_PROVIDERS = {
+            "Discovery Health", "Old Mutual Life", "Outsurance Car", "DSTV Premium", "City of Cape Town",
+            "City Power Electricity", "Vodacom Contract", "Virgin Active Gym", "Netflix Subscription"
+    };
+
+    private final TransactionPublisher publisher;
+    private final RateProfile rateProfile;
+    private final double targetRate;
+    private final double rampStartRate;
+    private final double burstRate;
+    private final long burstIntervalNanos;
+    private final long burstDurationNanos;
+    private final long durationNanos;
+    private final int accounts;
+    private final double accountSkew;
+    private final int merchants;
+    private final double merchantSkew;
+    private final long seed;
+    private final String reportDirectory;
+    private final long reportIntervalSeconds;
+    private final long completionTimeoutMillis;
+
+    // Published by this run and not yet committed, by transaction id
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Recorder responseTimes = new Recorder(3);
+    private final Recorder serviceTimes = new Recorder(3);
+    private final Histogram totalResponseTimes = new Histogram(3);
+    private final Histogram totalServiceTimes = new Histogram(3);
+    private final LongAdder completed = new LongAdder();
+
+    private volatile boolean active;
+    private volatile boolean stopRequested;
+    private Thread generatorThread;
+
+    private record Pending(long intendedNanos, long publishedNanos) {
+    }
+
+    private record Template(SourceType sourceType, String description, int minAmount, int maxAmount) {
+    }
+
+    public LoadGenerator(
+            TransactionPublisher publisher,
+            @Value("${app.load-generator.rate-profile:constant}") String rateProfile,
+            @Value("${app.load-generator.target-rate:1000}") double targetRate,
+            @Value("${app.load-generator.ramp-start-rate:100}") double rampStartRate,
+            @Value("${app.load-generator.burst-rate:10000}") double burstRate,
+            @Value("${app.load-generator.burst-interval-ms:10000}") long burstIntervalMillis,
+            @Value("${app.load-generator.burst-duration-ms:1000}") long burstDurationMillis,
+            @Value("${app.load-generator.duration-seconds:60}") long durationSeconds,
+            @Value("${app.load-generator.accounts:100000}") int accounts,
+            @Value("${app.load-generator.account-skew:1.0}") double accountSkew,
+            @Value("${app.load-generator.merchants:5000}") int merchants,
+            @Value("${app.load-generator.merchant-skew:1.1}") double merchantSkew,
+            @Value("${app.load-generator.seed:42}") long seed,
+            @Value("${app.load-generator.report-directory:./data/load-reports}") String reportDirectory,
+            @Value("${app.load-generator.report-interval-seconds:10}") long reportIntervalSeconds,
+            @Value("${app.load-generator.completion-timeout-ms:30000}") long completionTimeoutMillis) {
+        this.publisher = publisher;
+        this.rateProfile = RateProfile.fromName(rateProfile);
+        this.targetRate = targetRate;
+        this.rampStartRate = rampStartRate;
+        this.burstRate = burstRate;
+        this.burstIntervalNanos = TimeUnit.MILLISECONDS.toNanos(burstIntervalMillis);
+        this.burstDurationNanos = TimeUnit.MILLISECONDS.toNanos(burstDurationMillis);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.accounts = accounts;
+        this.accountSkew = accountSkew;
+        this.merchants = merchants;
+        this.merchantSkew = merchantSkew;
+        this.seed = seed;
+        this.reportDirectory = reportDirectory;
+        this.reportIntervalSeconds = reportIntervalSeconds;
+        this.completionTimeoutMillis = completionTimeoutMillis;
+    }
+
+    public synchronized void start() {
+        if (generatorThread != null) {
+            throw new IllegalStateException("Load generator has already run");
+        }
+        generatorThread = Thread.ofPlatform().name("load-generator").daemon().start(this::run);
+    }
+
+    /**
+     * Called by the consumers for every transaction committed to the database. Does nothing unless a
+     * run is in progress.
+     */
+    public void recordSaved(Transaction transaction) {
+        if (!active) {
+            return;
+        }
+
+        Pending published = pending.remove(transaction.getTransactionId());
+        if (published == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        responseTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(now - published.intendedNanos()));
+        serviceTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(now - published.publishedNanos()));
+        completed.increment();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            thread = generatorThread;
+        }
+        if (thread == null || !thread.isAlive()) {
+            return;
+        }
+
+        // The report is still written, with whatever had not been committed counted as incomplete
+        stopRequested = true;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        String startedAt = LocalDateTime.now().format(REPORT_TIMESTAMP);
+        logger.info("Load generator run {} starting: {} profile, target {} tx/s for {} s, {} accounts (skew {}), " +
+                        "{} merchants (skew {})", runId, rateProfile, targetRate, TimeUnit.NANOSECONDS.toSeconds(durationNanos),
+                accounts, accountSkew, merchants, merchantSkew);
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("load-reporter").daemon().factory());
+        long[] publishedAndRejected;
+        active = true;
+        try {
+            reporter.scheduleAtFixedRate(this::logInterval, reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+            publishedAndRejected = generate(runId);
+            awaitCompletion();
+        } finally {
+            active = false;
+            reporter.shutdownNow();
+        }
+
+        logInterval();
+        writeReport(runId, startedAt, publishedAndRejected[0], publishedAndRejected[1]);
+        pending.clear();
+    }
+
+    // Returns how many transactions were published and how many the queue rejected
+    private long[] generate(String runId) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Template[] templates = templates(new SplittableRandom(seed + 1));
+        ZipfDistribution merchantDistribution = new ZipfDistribution(templates.length, merchantSkew);
+        ZipfDistribution accountDistribution = new ZipfDistribution(accounts, accountSkew);
+
+        long start = System.nanoTime();
+        long intended = start;
+        long sequence = 0;
+        long published = 0;
+        long rejected = 0;
+
+        while (intended - start < durationNanos && !stopRequested) {
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0 && !stopRequested) {
+                LockSupport.parkNanos(wait);
+            }
+            // Behind schedule, the loop publishes back to back until it catches up; the lateness is still measured
+
+            Template template = templates[merchantDistribution.sample(random)];
+            int account = accountDistribution.sample(random);
+            RawTransactionDTO transaction = new RawTransactionDTO(
+                    "load-" + runId + "-" + sequence,
+                    "CLIENT-" + String.format("%06d", account / 2),
+                    "ACC-" + String.format("%010d", account),
+                    template.sourceType(),
+                    template.description(),
+                    BigDecimal.valueOf(template.minAmount() + random.nextInt(template.maxAmount() - template.minAmount() + 1)),
+                    LocalDateTime.now()
+            );
+
+            pending.put(transaction.getTransactionId(), new Pending(intended, System.nanoTime()));
+            try {
+                publisher.publish(transaction);
+                published++;
+            } catch (QueueFullException e) {
+                pending.remove(transaction.getTransactionId());
+                rejected++;
+            } catch (RuntimeException e) {
+                pending.remove(transaction.getTransactionId());
+                if (stopRequested) {
+                    break;
+                }
+                throw e;
+            }
+
+            sequence++;
+            intended += (long) (TimeUnit.SECONDS.toNanos(1) / rateAt(intended - start));
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Load generator published {} transactions in {} s ({} tx/s), {} rejected by the queue",
+                published, String.format("%.1f", seconds), String.format("%.0f", published / seconds), rejected);
+        return new long[] {published, rejected};
+    }
+
+    private double rateAt(long elapsedNanos) {
+        double rate = switch (rateProfile) {
+            case CONSTANT -> targetRate;
+            case RAMP -> rampStartRate + (targetRate - rampStartRate) * Math.min(1.0, (double) elapsedNanos / durationNanos);
+            case BURST -> elapsedNanos % burstIntervalNanos < burstDurationNanos ? burstRate : targetRate;
+        };
+        // Never stall the schedule outright, even if a rate is configured as zero
+        return Math.max(rate, 0.1);
+    }
+
+    private void awaitCompletion() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(completionTimeoutMillis);
+        while (!pending.isEmpty() && deadline - System.nanoTime() > 0 && !stopRequested) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+    }
+
+    private synchronized void logInterval() {
+        Histogram response = responseTimes.getIntervalHistogram();
+        Histogram service = serviceTimes.getIntervalHistogram();
+        totalResponseTimes.add(response);
+        totalServiceTimes.add(service);
+
+        if (response.getTotalCount() > 0) {
+            logger.info("Load generator: {} committed, response p50/p99/p999/max {}/{}/{}/{} ms, service p99 {} ms, {} in flight",
+                    response.getTotalCount(), millis(response.getValueAtPercentile(50)),
+                    millis(response.getValueAtPercentile(99)), millis(response.getValueAtPercentile(99.9)),
+                    millis(response.getMaxValue()), millis(service.getValueAtPercentile(99)), pending.size());
+        }
+    }
+
+    private void writeReport(String runId, String startedAt, long published, long rejected) {
+        long incomplete = published - completed.sum();
+        logger.info("Load generator run {} finished: {} committed, {} not committed within {} ms; response time " +
+                        "p50/p99/p999/max {}/{}/{}/{} ms", runId, completed.sum(), incomplete, completionTimeoutMillis,
+                millis(totalResponseTimes.getValueAtPercentile(50)), millis(totalResponseTimes.getValueAtPercentile(99)),
+                millis(totalResponseTimes.getValueAtPercentile(99.9)), millis(totalResponseTimes.getMaxValue()));
+
+        Path directory = Paths.get(reportDirectory);
+        Path report = directory.resolve("load-" + startedAt + "-" + runId + ".hgrm");
+        try {
+            Files.createDirectories(directory);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(report))) {
+                out.printf("# Load generator run %s: %s profile, target %.0f tx/s, %d published, %d rejected, %d not committed%n",
+                        runId, rateProfile, targetRate, published, rejected, incomplete);
+                out.println("# Response time (from intended publish time to commit, coordinated omission corrected), ms");
+                totalResponseTimes.outputPercentileDistribution(out, 1000.0);
+                out.println();
+                out.println("# Service time (from actual publish to commit), ms");
+                totalServiceTimes.outputPercentileDistribution(out, 1000.0);
+            }
+            logger.info("Load generator report written to {}", report.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Failed to write load generator report to {}", report, e);
+        }
+    }
+
+    // Distinct merchants and payees; rank 0 is the one the merchant skew makes most frequent
+    private Template[] templates(SplittableRandom random) {
+        Template[] templates = new Template[merchants];
+        for (int i = 0; i < templates.length; i++) {
+            int kind = random.nextInt(100);
+            if (kind < 65) {
+                String merchant = CARD_MERCHANTS[random.nextInt(CARD_MERCHANTS.length)];
+                templates[i] = new Template(SourceType.CARD, merchant + " Store " + i, -2000, -20);
+            } else if (kind < 85) {
+                String provider = DEBIT_ORDER_PROVIDERS[random.nextInt(DEBIT_ORDER_PROVIDERS.length)];
+                templates[i] = new Template(SourceType.DEBIT_ORDER, provider + " Ref " + i, -3000, -100);
+            } else if (kind < 95) {
+                templates[i] = new Template(SourceType.EFT, "Payment from Employer " + i + " - Salary", 15000, 60000);
+            } else {
+                templates[i] = new Template(SourceType.BANK_FEE, "Monthly service fee", -60, -59);
+            }
+        }
+        return templates;
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,22 @@
+package com.fintech.loadgen;
+
+import java.util.Locale;
+
+/**
+ * How {@link LoadGenerator} spreads its target rate over the run.
+ */
+public enum RateProfile {
+
+    // target-rate for the whole run
+    CONSTANT,
+
+    // Linearly from ramp-start-rate to target-rate over the run; the latency knee shows where the system saturates
+    RAMP,
+
+    // target-rate, with burst-rate for burst-duration-ms at the start of every burst-interval-ms
+    BURST;
+
+    public static RateProfile fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
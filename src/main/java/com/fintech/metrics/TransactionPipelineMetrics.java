@@ -0,0 +1,99 @@
+package com.fintech.metrics;
+
+import com.fintech.entity.Transaction;
+import com.fintech.enums.Category;
+import com.fintech.enums.Subcategory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for the consuming side of the pipeline, from taking a message off the queue to saving it.
+ * Every timer here is named transaction.*, which is what the percentile and histogram settings under
+ * management.metrics.distribution in application.yml apply to.
+ */
+@Component
+public class TransactionPipelineMetrics {
+
+    public static final String STAGE_CATEGORIZE = "categorize";
+    public static final String STAGE_SAVE = "save";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer categorize;
+    private final Timer insert;
+    private final Timer insertBatch;
+
+    // Indexed by category and subcategory ordinal, with one extra slot for no subcategory; filled on first use
+    private final Counter[][] categorized =
+            new Counter[Category.values().length][Subcategory.values().length + 1];
+
+    public TransactionPipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        this.categorize = Timer.builder("transaction.categorize")
+                .description("Time to categorize one transaction")
+                .register(meterRegistry);
+        this.insert = Timer.builder("transaction.db.save")
+                .description("Time to write to the database, not counting the wait for a write permit")
+                .tag("operation", "insert")
+                .register(meterRegistry);
+        this.insertBatch = Timer.builder("transaction.db.save")
+                .description("Time to write to the database, not counting the wait for a write permit")
+                .tag("operation", "insert_batch")
+                .register(meterRegistry);
+    }
+
+    // Time from taking a message or batch off the queue until it is saved, for one consumer
+    public Timer consumerLatency(int consumerId, boolean batch) {
+        return Timer.builder("transaction.consumer.latency")
+                .description("Time from taking transactions off the queue until they are saved")
+                .tag("consumer", String.valueOf(consumerId))
+                .tag("mode", batch ? "batch" : "single")
+                .register(meterRegistry);
+    }
+
+    public Timer categorizeTimer() {
+        return categorize;
+    }
+
+    public Timer saveTimer(boolean batch) {
+        return batch ? insertBatch : insert;
+    }
+
+    public void recordFailure(String stage, Throwable failure) {
+        Counter.builder("transaction.consumer.failures")
+                .description("Transactions that could not be processed, by stage and exception type")
+                .tag("stage", stage)
+                .tag("exception", failure.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordDeadLetter(String stage) {
+        Counter.builder("transaction.consumer.dead_letters")
+                .description("Transactions set aside in the dead-letter table, by the stage they failed in")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Counts a transaction that has been categorized and saved
+    public void recordCategorized(Transaction transaction) {
+        Category category = transaction.getCategory() == null ? Category.UNCATEGORIZED : transaction.getCategory();
+        Subcategory subcategory = transaction.getSubcategory();
+        int column = subcategory == null ? Subcategory.values().length : subcategory.ordinal();
+
+        Counter counter = categorized[category.ordinal()][column];
+        if (counter == null) {
+            // Racing threads get the same counter back from the registry, so the unsynchronized write is harmless
+            counter = Counter.builder("transaction.categorized")
+                    .description("Transactions saved, by category and subcategory")
+                    .tag("category", category.name())
+                    .tag("subcategory", subcategory == null ? "NONE" : subcategory.name())
+                    .register(meterRegistry);
+            categorized[category.ordinal()][column] = counter;
+        }
+        counter.increment();
+    }
+}
@@ -0,0 +1,328 @@
+package com.fintech.queue;
+
+import com.fintech.dto.RawTransactionDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Queue backed by an append-only log of memory-mapped segment files, so published transactions
+ * survive a restart or crash. Messages are numbered by offset. The committed offset only moves past
+ * a message once it and every message before it have been acknowledged; it is persisted in its own
+ * small mapped file, and on startup delivery resumes from there. Segments that lie entirely below
+ * the committed offset are unmapped and deleted, which frees their disk space straight away.
+ *
+ * Delivery is at-least-once: messages that were consumed but not acknowledged before a crash are
+ * delivered again.
+ */
+@Component
+@ConditionalOnProperty(name = "app.queue.type", havingValue = "durable")
+public class DurableTransactionQueue implements TransactionQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurableTransactionQueue.class);
+
+    private static final String OFFSET_FILE = "consumer.offset";
+
+    private final Path directory;
+    private final int segmentSizeBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    // Guarded by lock
+    private final List<LogSegment> segments = new ArrayList<>();
+    private final Map<RawTransactionDTO, Long> inFlight = new IdentityHashMap<>();
+    private final TreeSet<Long> acknowledgedAhead = new TreeSet<>();
+    private int readSegment;
+    private int readPosition;
+    private long readOffset;
+    private long committedOffset;
+
+    private final MappedByteBuffer committedOffsetFile;
+
+    public DurableTransactionQueue(
+            @Value("${app.queue.durable.directory:./data/queue}") String directory,
+            @Value("${app.queue.durable.segment-size-bytes:67108864}") int segmentSizeBytes) throws IOException {
+        this.directory = Paths.get(directory);
+        this.segmentSizeBytes = segmentSizeBytes;
+
+        Files.createDirectories(this.directory);
+        this.committedOffsetFile = mapOffsetFile(this.directory.resolve(OFFSET_FILE));
+        this.committedOffset = committedOffsetFile.getLong(0);
+
+        recover();
+    }
+
+    @Override
+    public void publish(RawTransactionDTO transaction) {
+        // Encoding and checksumming happen before taking the lock
+        byte[] payload = RawTransactionCodec.encode(transaction);
+        int crc = LogSegment.checksum(payload);
+        if (!LogSegment.fitsEmptySegment(payload.length, segmentSizeBytes)) {
+            throw new IllegalArgumentException("Transaction " + transaction.getTransactionId() +
+                    " is too large for a queue segment");
+        }
+
+        lock.lock();
+        try {
+            LogSegment active = segments.get(segments.size() - 1);
+            if (!active.hasRoomFor(payload.length)) {
+                active = rollOver(active);
+            }
+            active.append(payload, crc);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The log only grows, so there is always room
+    @Override
+    public boolean offer(RawTransactionDTO transaction, long timeout, TimeUnit unit) {
+        publish(transaction);
+        return true;
+    }
+
+    @Override
+    public RawTransactionDTO consume() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (readOffset == publishedOffset()) {
+                notEmpty.await();
+            }
+            return readNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<RawTransactionDTO> consumeBatch(int maxBatchSize, long maxWaitMillis) throws InterruptedException {
+        List<RawTransactionDTO> batch = new ArrayList<>(maxBatchSize);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+
+        lock.lockInterruptibly();
+        try {
+            while (readOffset == publishedOffset()) {
+                notEmpty.await();
+            }
+
+            while (batch.size() < maxBatchSize) {
+                if (readOffset < publishedOffset()) {
+                    batch.add(readNext());
+                    continue;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    notEmpty.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super RawTransactionDTO> batch, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && readOffset < publishedOffset()) {
+                batch.add(readNext());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void acknowledge(List<RawTransactionDTO> transactions) {
+        lock.lock();
+        try {
+            long previousCommitted = committedOffset;
+
+            for (RawTransactionDTO transaction : transactions) {
+                Long offset = inFlight.remove(transaction);
+                if (offset == null) {
+                    continue;
+                }
+                if (offset == committedOffset) {
+                    committedOffset++;
+                    while (acknowledgedAhead.remove(committedOffset)) {
+                        committedOffset++;
+                    }
+                } else {
+                    acknowledgedAhead.add(offset);
+                }
+            }
+
+            if (committedOffset != previousCommitted) {
+                committedOffsetFile.putLong(0, committedOffset);
+                truncate();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return (int) (publishedOffset() - readOffset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Mapped writes already survive a process crash; forcing them out also covers a machine crash
+    @Scheduled(fixedDelayString = "${app.queue.durable.flush-interval-ms:100}")
+    public void flush() {
+        lock.lock();
+        try {
+            segments.get(segments.size() - 1).flush();
+            committedOffsetFile.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        logger.info("Durable queue closed at committed offset {} ({} messages not yet acknowledged)",
+                committedOffset, publishedOffset() - committedOffset);
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(path -> path.getFileName().toString().endsWith(LogSegment.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        for (Path file : files) {
+            segments.add(LogSegment.open(file, segmentSizeBytes));
+        }
+        if (segments.isEmpty()) {
+            segments.add(LogSegment.create(directory, committedOffset, segmentSizeBytes));
+        }
+
+        // Position the read cursor on the first uncommitted message
+        long firstOffset = segments.get(0).baseOffset();
+        if (committedOffset < firstOffset) {
+            logger.warn("Committed offset {} precedes the oldest queue segment, resuming from {}",
+                    committedOffset, firstOffset);
+            committedOffset = firstOffset;
+        }
+        readOffset = firstOffset;
+        while (readOffset < committedOffset && readOffset < publishedOffset()) {
+            skipNext();
+        }
+        committedOffset = readOffset;
+
+        // Older segments fully below the committed offset may have survived a crash before deletion
+        truncate();
+
+        logger.info("Durable queue recovered from {}: {} segments, {} undelivered messages from offset {}",
+                directory, segments.size(), publishedOffset() - readOffset, readOffset);
+    }
+
+    private LogSegment rollOver(LogSegment active) {
+        try {
+            active.flush();
+            LogSegment next = LogSegment.create(directory, active.nextOffset(), segmentSizeBytes);
+            segments.add(next);
+            logger.debug("Rolled queue log over to a new segment at offset {}", next.baseOffset());
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create queue segment", e);
+        }
+    }
+
+    private void truncate() {
+        while (segments.size() > 1 && segments.get(1).baseOffset() <= committedOffset && readSegment > 0) {
+            LogSegment oldest = segments.remove(0);
+            readSegment--;
+            try {
+                oldest.delete();
+            } catch (IOException e) {
+                logger.warn("Failed to delete fully committed queue segment at offset {}", oldest.baseOffset(), e);
+            }
+        }
+    }
+
+    private RawTransactionDTO readNext() {
+        ByteBuffer payload = advance();
+        RawTransactionDTO transaction = RawTransactionCodec.decode(payload);
+        inFlight.put(transaction, readOffset - 1);
+        return transaction;
+    }
+
+    private void skipNext() {
+        advance();
+    }
+
+    // Moves the read cursor past one record and returns its payload
+    private ByteBuffer advance() {
+        LogSegment segment = segments.get(readSegment);
+        while (readPosition >= segment.writePosition()) {
+            readSegment++;
+            readPosition = 0;
+            segment = segments.get(readSegment);
+        }
+
+        ByteBuffer payload = segment.read(readPosition);
+        readPosition += segment.recordSize(readPosition);
+        readOffset++;
+        return payload;
+    }
+
+    private long publishedOffset() {
+        return segments.get(segments.size() - 1).nextOffset();
+    }
+
+    private static MappedByteBuffer mapOffsetFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        }
+    }
+}
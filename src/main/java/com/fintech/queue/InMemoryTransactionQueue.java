@@ -0,0 +1,98 @@
+package com.fintech.queue;
+
+import com.fintech.dto.RawTransactionDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "app.queue.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTransactionQueue implements TransactionQueue {
+
+    private final BlockingQueue<RawTransactionDTO> queue;
+    private final int capacity;
+
+    public InMemoryTransactionQueue(@Value("${app.queue.memory.capacity:10000}") int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void publish(RawTransactionDTO transaction) {
+        try {
+            queue.put(transaction);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to publish transaction", e);
+        }
+    }
+
+    @Override
+    public boolean offer(RawTransactionDTO transaction, long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.offer(transaction, timeout, unit);
+    }
+
+    @Override
+    public RawTransactionDTO consume() throws InterruptedException {
+        return queue.take();
+    }
+
+    @Override
+    public List<RawTransactionDTO> consumeBatch(int maxBatchSize, long maxWaitMillis) throws InterruptedException {
+        List<RawTransactionDTO> batch = new ArrayList<>(maxBatchSize);
+        batch.add(queue.take());
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+
+            RawTransactionDTO next;
+            try {
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+
+        return batch;
+    }
+
+    @Override
+    public int drainTo(Collection<? super RawTransactionDTO> batch, int maxElements) {
+        return queue.drainTo(batch, maxElements);
+    }
+
+    // Nothing survives a restart, so there is no offset to commit
+    @Override
+    public void acknowledge(List<RawTransactionDTO> transactions) {
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+}
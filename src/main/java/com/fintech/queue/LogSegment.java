@@ -0,0 +1,168 @@
+package com.fintech.queue;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size, memory-mapped file of the durable queue log. Records are laid out as
+ * {@code [int length][int crc32c][payload]}; a zero length marks the end of the written data,
+ * since new files are zero-filled. Not thread-safe: {@link DurableTransactionQueue} accesses all
+ * segments under its lock, and no view of a segment outlives the call that read it.
+ *
+ * The disk space of a deleted file stays in use for as long as it is mapped, and a mapping is
+ * normally only released when its buffer is garbage collected, which for a long-lived buffer may be
+ * never. {@link #delete()} therefore unmaps the segment first, through
+ * {@code sun.misc.Unsafe.invokeCleaner}; on a JVM without it the space is freed at the next
+ * collection that reaches the buffer.
+ */
+final class LogSegment {
+
+    static final String SUFFIX = ".log";
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    // Null if this JVM does not offer it
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private final long baseOffset;
+    private final Path path;
+    // Null once deleted; the segment must not be used after that
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private int messageCount;
+
+    private LogSegment(long baseOffset, Path path, MappedByteBuffer buffer) {
+        this.baseOffset = baseOffset;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static LogSegment create(Path directory, long baseOffset, int sizeBytes) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", baseOffset, SUFFIX));
+        return new LogSegment(baseOffset, path, map(path, sizeBytes));
+    }
+
+    // Re-opens an existing segment and finds the end of its last complete record
+    static LogSegment open(Path path, int sizeBytes) throws IOException {
+        String name = path.getFileName().toString();
+        long baseOffset = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        LogSegment segment = new LogSegment(baseOffset, path, map(path, Math.max(sizeBytes, (int) Files.size(path))));
+
+        int position = 0;
+        while (segment.isValidRecordAt(position)) {
+            position += HEADER_BYTES + segment.buffer.getInt(position);
+            segment.messageCount++;
+        }
+        segment.writePosition = position;
+        return segment;
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    long nextOffset() {
+        return baseOffset + messageCount;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    boolean hasRoomFor(int payloadLength) {
+        // Keep room for the zero length that terminates the segment
+        return writePosition + HEADER_BYTES + payloadLength + Integer.BYTES <= buffer.capacity();
+    }
+
+    static boolean fitsEmptySegment(int payloadLength, int sizeBytes) {
+        return HEADER_BYTES + payloadLength + Integer.BYTES <= sizeBytes;
+    }
+
+    void append(byte[] payload, int crc) {
+        // The length goes in last, so an interrupted write is never mistaken for a complete record
+        buffer.put(writePosition + HEADER_BYTES, payload);
+        buffer.putInt(writePosition + Integer.BYTES, crc);
+        buffer.putInt(writePosition, payload.length);
+        writePosition += HEADER_BYTES + payload.length;
+        messageCount++;
+    }
+
+    // Returns a view of the record payload at position; the caller advances by recordSize()
+    ByteBuffer read(int position) {
+        int length = buffer.getInt(position);
+        return buffer.slice(position + HEADER_BYTES, length);
+    }
+
+    int recordSize(int position) {
+        return HEADER_BYTES + buffer.getInt(position);
+    }
+
+    void flush() {
+        buffer.force();
+    }
+
+    void delete() throws IOException {
+        MappedByteBuffer mapped = buffer;
+        // Any later access fails here, rather than touching memory that is no longer mapped
+        buffer = null;
+        if (mapped != null && INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invoke(mapped);
+            } catch (Throwable e) {
+                throw new IOException("Failed to unmap queue segment " + path, e);
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+
+    static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private boolean isValidRecordAt(int position) {
+        if (position + HEADER_BYTES > buffer.capacity()) {
+            return false;
+        }
+
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+            return false;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position + HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(position + Integer.BYTES);
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, int sizeBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes);
+        }
+    }
+}
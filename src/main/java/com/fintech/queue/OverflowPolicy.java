@@ -0,0 +1,23 @@
+package com.fintech.queue;
+
+import java.util.Locale;
+
+/**
+ * What {@link TransactionPublisher} does with a transaction when the queue stays full past the offer
+ * timeout.
+ */
+public enum OverflowPolicy {
+
+    // Wait until there is room, however long that takes
+    BLOCK,
+
+    // Fail with a QueueFullException, which HTTP callers see as 503 with Retry-After
+    REJECT,
+
+    // Append to an on-disk overflow log that is replayed into the queue once it drains
+    SPILL;
+
+    public static OverflowPolicy fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
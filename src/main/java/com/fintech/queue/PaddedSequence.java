@@ -0,0 +1,45 @@
+package com.fintech.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A counter on a cache line of its own. The padding fields before and after the value keep the
+ * producer and consumer cursors of {@link RingBufferTransactionQueue} from invalidating each other's
+ * cache line on every update (false sharing). The JVM lays superclass fields out first, which is what
+ * keeps the padding on both sides.
+ */
+final class PaddedSequence extends PaddedSequenceValue {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(PaddedSequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private long p9, p10, p11, p12, p13, p14, p15;
+
+    long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    boolean compareAndSet(long expected, long next) {
+        return VALUE.compareAndSet(this, expected, next);
+    }
+}
+
+abstract class PaddedSequenceLeftPadding {
+
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+}
+
+abstract class PaddedSequenceValue extends PaddedSequenceLeftPadding {
+
+    protected volatile long value;
+}
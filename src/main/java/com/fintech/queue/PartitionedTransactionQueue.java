@@ -0,0 +1,166 @@
+package com.fintech.queue;
+
+import com.fintech.dto.RawTransactionDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Splits the queue into lanes by account number, so every transaction of an account lands in the
+ * same lane. {@link com.fintech.service.TransactionConsumerService} runs exactly one consumer per
+ * lane, which processes each account's transactions in publish order and keeps any per-lane state
+ * free of contention.
+ *
+ * Consumers get the lanes from {@link #consumerSources(int)} and read each one on its own. Consuming
+ * from the partitioned queue as a whole polls the lanes round-robin, which works but gives up the
+ * per-account ordering.
+ */
+@Component
+@ConditionalOnProperty(name = "app.queue.type", havingValue = "partitioned")
+public class PartitionedTransactionQueue implements TransactionQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedTransactionQueue.class);
+
+    // How long consuming from the whole queue waits between polls of empty lanes
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final List<TransactionQueue> lanes;
+    private final AtomicInteger nextLane = new AtomicInteger();
+
+    public PartitionedTransactionQueue(
+            @Value("${app.queue.partitioned.lanes:8}") int laneCount,
+            @Value("${app.queue.partitioned.lane-type:ring}") String laneType,
+            @Value("${app.queue.ring.capacity:8192}") int ringCapacity,
+            @Value("${app.queue.ring.wait-strategy:park}") String waitStrategy,
+            @Value("${app.queue.memory.capacity:10000}") int memoryCapacity,
+            MeterRegistry meterRegistry) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Partitioned queue needs at least one lane, got " + laneCount);
+        }
+
+        List<TransactionQueue> created = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            TransactionQueue lane = switch (laneType.toLowerCase()) {
+                case "ring" -> new RingBufferTransactionQueue(ringCapacity, waitStrategy);
+                case "memory" -> new InMemoryTransactionQueue(memoryCapacity);
+                default -> throw new IllegalArgumentException("Unsupported lane type: " + laneType);
+            };
+            created.add(lane);
+
+            Gauge.builder("transaction.queue.lane.depth", lane, TransactionQueue::size)
+                    .description("Transactions published to the lane but not yet consumed")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        this.lanes = List.copyOf(created);
+
+        logger.info("Partitioned queue ready ({} {} lanes)", laneCount, laneType);
+    }
+
+    // One consumer per lane, however many were asked for
+    @Override
+    public List<TransactionQueue> consumerSources(int consumers) {
+        return lanes;
+    }
+
+    public int laneFor(String accountNumber) {
+        if (accountNumber == null) {
+            return 0;
+        }
+        // Spread the high bits into the low ones; account numbers often differ only in their last digits
+        int hash = accountNumber.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.size());
+    }
+
+    @Override
+    public void publish(RawTransactionDTO transaction) {
+        lanes.get(laneFor(transaction.getAccountNumber())).publish(transaction);
+    }
+
+    @Override
+    public boolean offer(RawTransactionDTO transaction, long timeout, TimeUnit unit) throws InterruptedException {
+        return lanes.get(laneFor(transaction.getAccountNumber())).offer(transaction, timeout, unit);
+    }
+
+    @Override
+    public RawTransactionDTO consume() throws InterruptedException {
+        List<RawTransactionDTO> next = new ArrayList<>(1);
+        while (drainTo(next, 1) == 0) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        return next.get(0);
+    }
+
+    @Override
+    public List<RawTransactionDTO> consumeBatch(int maxBatchSize, long maxWaitMillis) throws InterruptedException {
+        List<RawTransactionDTO> batch = new ArrayList<>(maxBatchSize);
+        batch.add(consume());
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (batch.size() < maxBatchSize) {
+            if (drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            // Parking returns on interrupt and leaves the status set, as the contract asks
+            if (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        return batch;
+    }
+
+    // Starts from a different lane on every call, so a busy lane cannot starve the others
+    @Override
+    public int drainTo(Collection<? super RawTransactionDTO> batch, int maxElements) {
+        int first = Math.floorMod(nextLane.getAndIncrement(), lanes.size());
+        int drained = 0;
+        for (int i = 0; i < lanes.size() && drained < maxElements; i++) {
+            drained += lanes.get((first + i) % lanes.size()).drainTo(batch, maxElements - drained);
+        }
+        return drained;
+    }
+
+    // Lanes are in-memory, so there is no offset to commit
+    @Override
+    public void acknowledge(List<RawTransactionDTO> transactions) {
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (TransactionQueue lane : lanes) {
+            size += lane.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return lanes.get(0).capacity() * lanes.size();
+    }
+
+    // A hot account fills its own lane long before the others, so the fullest lane is what counts
+    @Override
+    public double fillRatio() {
+        double fullest = 0;
+        for (TransactionQueue lane : lanes) {
+            fullest = Math.max(fullest, lane.fillRatio());
+        }
+        return fullest;
+    }
+}
@@ -0,0 +1,105 @@
+package com.fintech.queue;
+
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.enums.SourceType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary form of a {@link RawTransactionDTO} for the durable log. Strings are written as
+ * length-prefixed UTF-8 (length -1 for null) and enums by name, so reordering enum constants does
+ * not corrupt messages already on disk.
+ */
+final class RawTransactionCodec {
+
+    private RawTransactionCodec() {
+    }
+
+    static byte[] encode(RawTransactionDTO transaction) {
+        byte[] transactionId = utf8(transaction.getTransactionId());
+        byte[] clientId = utf8(transaction.getClientId());
+        byte[] accountNumber = utf8(transaction.getAccountNumber());
+        byte[] sourceType = utf8(transaction.getSourceType() == null ? null : transaction.getSourceType().name());
+        byte[] description = utf8(transaction.getDescription());
+        byte[] unscaledAmount = transaction.getAmount() == null
+                ? null
+                : transaction.getAmount().unscaledValue().toByteArray();
+
+        int size = sizeOf(transactionId) + sizeOf(clientId) + sizeOf(accountNumber) + sizeOf(sourceType)
+                + sizeOf(description) + Integer.BYTES + sizeOf(unscaledAmount) + 1 + Long.BYTES + Integer.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        put(buffer, transactionId);
+        put(buffer, clientId);
+        put(buffer, accountNumber);
+        put(buffer, sourceType);
+        put(buffer, description);
+        buffer.putInt(transaction.getAmount() == null ? 0 : transaction.getAmount().scale());
+        put(buffer, unscaledAmount);
+
+        LocalDateTime date = transaction.getTransactionDate();
+        buffer.put((byte) (date == null ? 0 : 1));
+        buffer.putLong(date == null ? 0L : date.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(date == null ? 0 : date.getNano());
+
+        return buffer.array();
+    }
+
+    static RawTransactionDTO decode(ByteBuffer buffer) {
+        RawTransactionDTO transaction = new RawTransactionDTO();
+        transaction.setTransactionId(string(buffer));
+        transaction.setClientId(string(buffer));
+        transaction.setAccountNumber(string(buffer));
+        String sourceType = string(buffer);
+        transaction.setSourceType(sourceType == null ? null : SourceType.valueOf(sourceType));
+        transaction.setDescription(string(buffer));
+
+        int scale = buffer.getInt();
+        byte[] unscaledAmount = bytes(buffer);
+        transaction.setAmount(unscaledAmount == null ? null : new BigDecimal(new BigInteger(unscaledAmount), scale));
+
+        boolean hasDate = buffer.get() != 0;
+        long epochSecond = buffer.getLong();
+        int nanos = buffer.getInt();
+        transaction.setTransactionDate(hasDate ? LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC) : null);
+
+        return transaction;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return value;
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] value = bytes(buffer);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
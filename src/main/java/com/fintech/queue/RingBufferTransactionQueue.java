@@ -0,0 +1,208 @@
+package com.fintech.queue;
+
+import com.fintech.dto.RawTransactionDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded multi-producer, multi-consumer queue on a preallocated ring buffer, without locks and without
+ * allocating per message. Every slot carries a sequence number telling producers and consumers whose
+ * turn it is, so claiming a slot is a single compare-and-set on the padded producer or consumer cursor
+ * (D. Vyukov's bounded MPMC queue).
+ *
+ * Nobody is signalled when a slot fills or frees up; waiting threads poll according to the configured
+ * {@link WaitStrategy}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.queue.type", havingValue = "ring")
+public class RingBufferTransactionQueue implements TransactionQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferTransactionQueue.class);
+
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final RawTransactionDTO[] slots;
+    private final long[] sequences;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+
+    private final PaddedSequence producerCursor = new PaddedSequence();
+    private final PaddedSequence consumerCursor = new PaddedSequence();
+
+    public RingBufferTransactionQueue(
+            @Value("${app.queue.ring.capacity:8192}") int capacity,
+            @Value("${app.queue.ring.wait-strategy:park}") String waitStrategy) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two, got " + capacity);
+        }
+
+        this.slots = new RawTransactionDTO[capacity];
+        this.sequences = new long[capacity];
+        this.mask = capacity - 1;
+        this.waitStrategy = WaitStrategy.fromName(waitStrategy);
+
+        // Slot i is first free for the producer claiming position i
+        for (int i = 0; i < capacity; i++) {
+            sequences[i] = i;
+        }
+
+        logger.info("Ring buffer queue ready (capacity {}, {} wait strategy)", capacity, this.waitStrategy);
+    }
+
+    @Override
+    public void publish(RawTransactionDTO transaction) {
+        int attempt = 0;
+        while (!offer(transaction)) {
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Failed to publish transaction",
+                        new InterruptedException("Interrupted while waiting for room in the ring buffer"));
+            }
+            attempt = idle(attempt);
+        }
+    }
+
+    @Override
+    public boolean offer(RawTransactionDTO transaction, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        while (!offer(transaction)) {
+            if (deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            attempt = idle(attempt);
+        }
+        return true;
+    }
+
+    @Override
+    public RawTransactionDTO consume() throws InterruptedException {
+        int attempt = 0;
+        RawTransactionDTO transaction;
+        while ((transaction = poll()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            attempt = idle(attempt);
+        }
+        return transaction;
+    }
+
+    @Override
+    public List<RawTransactionDTO> consumeBatch(int maxBatchSize, long maxWaitMillis) throws InterruptedException {
+        List<RawTransactionDTO> batch = new ArrayList<>(maxBatchSize);
+        batch.add(consume());
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        int attempt = 0;
+        while (batch.size() < maxBatchSize) {
+            if (drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                attempt = 0;
+                continue;
+            }
+
+            if (deadline - System.nanoTime() <= 0 || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            attempt = idle(attempt);
+        }
+
+        return batch;
+    }
+
+    @Override
+    public int drainTo(Collection<? super RawTransactionDTO> batch, int maxElements) {
+        int drained = 0;
+        RawTransactionDTO transaction;
+        while (drained < maxElements && (transaction = poll()) != null) {
+            batch.add(transaction);
+            drained++;
+        }
+        return drained;
+    }
+
+    // Nothing survives a restart, so there is no offset to commit
+    @Override
+    public void acknowledge(List<RawTransactionDTO> transactions) {
+    }
+
+    @Override
+    public int size() {
+        // Read the consumer cursor first so a concurrent consume cannot make the difference negative
+        long consumed = consumerCursor.get();
+        long published = producerCursor.get();
+        return (int) Math.max(0, Math.min(published - consumed, slots.length));
+    }
+
+    @Override
+    public int capacity() {
+        return slots.length;
+    }
+
+    private boolean offer(RawTransactionDTO transaction) {
+        long position = producerCursor.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = (long) SEQUENCES.getAcquire(sequences, index);
+            long difference = sequence - position;
+
+            if (difference == 0) {
+                if (producerCursor.compareAndSet(position, position + 1)) {
+                    slots[index] = transaction;
+                    // Hands the slot to the consumer that will claim this position
+                    SEQUENCES.setRelease(sequences, index, position + 1);
+                    return true;
+                }
+                position = producerCursor.get();
+            } else if (difference < 0) {
+                // The slot still holds a message from one lap ago: the buffer is full
+                return false;
+            } else {
+                position = producerCursor.get();
+            }
+        }
+    }
+
+    private RawTransactionDTO poll() {
+        long position = consumerCursor.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = (long) SEQUENCES.getAcquire(sequences, index);
+            long difference = sequence - (position + 1);
+
+            if (difference == 0) {
+                if (consumerCursor.compareAndSet(position, position + 1)) {
+                    RawTransactionDTO transaction = slots[index];
+                    slots[index] = null;
+                    // Hands the slot back to the producer one lap ahead
+                    SEQUENCES.setRelease(sequences, index, position + slots.length);
+                    return transaction;
+                }
+                position = consumerCursor.get();
+            } else if (difference < 0) {
+                // Not yet published: the buffer is empty
+                return null;
+            } else {
+                position = consumerCursor.get();
+            }
+        }
+    }
+
+    private int idle(int attempt) {
+        waitStrategy.idle(attempt);
+        return WaitStrategy.nextAttempt(attempt);
+    }
+}
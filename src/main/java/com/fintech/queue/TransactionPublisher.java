@@ -0,0 +1,261 @@
+package com.fintech.queue;
+
+import com.fintech.dto.QueueStatusDTO;
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.exception.QueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point for everything that publishes transactions. Applies the configured
+ * {@link OverflowPolicy} when the queue stays full past the offer timeout, and exposes a
+ * high-watermark signal that producers read to slow down before the queue actually fills up.
+ *
+ * With the spill policy, overflow goes to a {@link DurableTransactionQueue} of its own. While that
+ * log holds anything, new transactions are appended behind it rather than overtaking it, and a
+ * scheduled task moves spilled transactions into the queue whenever it is below the high watermark.
+ */
+@Component
+public class TransactionPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPublisher.class);
+
+    private static final int REPLAY_BATCH_SIZE = 1000;
+
+    private final TransactionQueue queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long offerTimeoutMillis;
+    private final double highWatermark;
+    private final long retryAfterSeconds;
+    private final DurableTransactionQueue spillLog;
+
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter rejected;
+    private final Counter spilled;
+    private final Timer publishedTime;
+    private final Timer rejectedTime;
+    private final Timer spilledTime;
+
+    // Taken from the spill log but not yet accepted by the queue; only touched by the replay task
+    private volatile RawTransactionDTO replayPending;
+
+    public TransactionPublisher(
+            TransactionQueue queue,
+            @Value("${app.queue.overflow.policy:block}") String overflowPolicy,
+            @Value("${app.queue.overflow.offer-timeout-ms:100}") long offerTimeoutMillis,
+            @Value("${app.queue.overflow.high-watermark:0.8}") double highWatermark,
+            @Value("${app.queue.overflow.retry-after-seconds:5}") long retryAfterSeconds,
+            @Value("${app.queue.overflow.spill-directory:./data/spill}") String spillDirectory,
+            @Value("${app.queue.overflow.spill-segment-size-bytes:16777216}") int spillSegmentSizeBytes,
+            MeterRegistry meterRegistry) throws IOException {
+        this.queue = queue;
+        this.overflowPolicy = OverflowPolicy.fromName(overflowPolicy);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.highWatermark = highWatermark;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.spillLog = this.overflowPolicy == OverflowPolicy.SPILL
+                ? new DurableTransactionQueue(spillDirectory, spillSegmentSizeBytes)
+                : null;
+
+        this.rejected = Counter.builder("transaction.queue.overflow")
+                .description("Transactions that found the queue full past the offer timeout")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.spilled = Counter.builder("transaction.queue.overflow")
+                .description("Transactions that found the queue full past the offer timeout")
+                .tag("outcome", "spilled")
+                .register(meterRegistry);
+        // The rate of each outcome, and how long publishers were held up waiting for room
+        this.publishedTime = publishTimer("published", meterRegistry);
+        this.rejectedTime = publishTimer("rejected", meterRegistry);
+        this.spilledTime = publishTimer("spilled", meterRegistry);
+        Gauge.builder("transaction.queue.depth", queue, TransactionQueue::size)
+                .description("Transactions published but not yet consumed")
+                .register(meterRegistry);
+        Gauge.builder("transaction.queue.above.high.watermark", this, p -> p.isAboveHighWatermark() ? 1 : 0)
+                .description("1 while producers should throttle themselves")
+                .register(meterRegistry);
+
+        logger.info("Transaction publisher ready ({} on overflow, high watermark {})",
+                this.overflowPolicy, highWatermark);
+    }
+
+    /**
+     * Publishes according to the overflow policy: waits indefinitely (block), throws
+     * {@link QueueFullException} (reject) or writes to the spill log (spill).
+     */
+    public void publish(RawTransactionDTO transaction) {
+        long started = System.nanoTime();
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                queue.publish(transaction);
+                record(publishedTime, started);
+            }
+            case REJECT -> {
+                if (!offerWithinTimeout(transaction)) {
+                    rejected.increment();
+                    record(rejectedTime, started);
+                    throw new QueueFullException("Transaction queue is full", retryAfterSeconds);
+                }
+                record(publishedTime, started);
+            }
+            case SPILL -> {
+                if (spillBacklog() > 0 || !offerWithinTimeout(transaction)) {
+                    spillLog.publish(transaction);
+                    spilled.increment();
+                    record(spilledTime, started);
+                } else {
+                    record(publishedTime, started);
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes in order until done or until the reject policy turns a transaction away. Returns how
+     * many were published; the rest were not.
+     */
+    public int publishAll(List<RawTransactionDTO> transactions) {
+        for (int i = 0; i < transactions.size(); i++) {
+            try {
+                publish(transactions.get(i));
+            } catch (QueueFullException e) {
+                return i;
+            }
+        }
+        return transactions.size();
+    }
+
+    // Bypasses the overflow policy: the caller decides what to do when this returns false
+    public boolean offer(RawTransactionDTO transaction, long timeout, TimeUnit unit) throws InterruptedException {
+        long started = System.nanoTime();
+        boolean offered = queue.offer(transaction, timeout, unit);
+        record(offered ? publishedTime : rejectedTime, started);
+        return offered;
+    }
+
+    // Publishes on a virtual thread, so a blocking policy never holds up the caller
+    public CompletableFuture<Void> publishAsync(RawTransactionDTO transaction) {
+        return CompletableFuture.runAsync(() -> publish(transaction), asyncExecutor);
+    }
+
+    public boolean isAboveHighWatermark() {
+        return queue.fillRatio() >= highWatermark || spillBacklog() > 0;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public QueueStatusDTO status() {
+        return new QueueStatusDTO(
+                queue.size(),
+                queue.capacity(),
+                queue.fillRatio(),
+                highWatermark,
+                isAboveHighWatermark(),
+                overflowPolicy.name(),
+                spillBacklog(),
+                (long) rejected.count(),
+                (long) spilled.count()
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${app.queue.overflow.replay-interval-ms:200}")
+    public void replaySpilled() {
+        if (spillLog == null) {
+            return;
+        }
+
+        int replayed = 0;
+        List<RawTransactionDTO> next = new ArrayList<>(1);
+        // Stays below the high watermark so the replay itself never triggers throttling upstream
+        while (replayed < REPLAY_BATCH_SIZE && queue.fillRatio() < highWatermark) {
+            if (replayPending == null) {
+                next.clear();
+                if (spillLog.drainTo(next, 1) == 0) {
+                    break;
+                }
+                replayPending = next.get(0);
+            }
+
+            try {
+                if (!queue.offer(replayPending, 0, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            spillLog.acknowledge(replayPending);
+            replayPending = null;
+            replayed++;
+        }
+
+        if (replayed > 0) {
+            logger.info("Replayed {} spilled transactions into the queue ({} still spilled)", replayed, spillBacklog());
+        }
+        spillLog.flush();
+    }
+
+    @PreDestroy
+    public void close() {
+        asyncExecutor.shutdown();
+        try {
+            if (!asyncExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Asynchronous publishes still pending at shutdown were dropped");
+                asyncExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Anything spilled but not replayed, including a pending replay, is read again on the next start
+        if (spillLog != null) {
+            spillLog.close();
+        }
+    }
+
+    private static Timer publishTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("transaction.queue.publish")
+                .description("Time spent publishing a transaction, including waiting for room in the queue")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static void record(Timer timer, long startedNanos) {
+        timer.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private int spillBacklog() {
+        if (spillLog == null) {
+            return 0;
+        }
+        return spillLog.size() + (replayPending == null ? 0 : 1);
+    }
+
+    private boolean offerWithinTimeout(RawTransactionDTO transaction) {
+        try {
+            return queue.offer(transaction, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to publish transaction", e);
+        }
+    }
+}
@@ -1,30 +1,66 @@
 package com.fintech.queue;
 
 import com.fintech.dto.RawTransactionDTO;
-import org.springframework.stereotype.Component;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-@Component
-public class TransactionQueue {
+/**
+ * Hand-off between the producers and the consumers. The implementation is chosen with
+ * {@code app.queue.type}: "memory" (default), "ring", "partitioned" or "durable".
+ */
+public interface TransactionQueue {
 
-    private final BlockingQueue<RawTransactionDTO> queue = new LinkedBlockingQueue<>(1000);
+    // Blocks until there is room
+    void publish(RawTransactionDTO transaction);
 
-    public void publish(RawTransactionDTO transaction) {
-        try {
-            queue.put(transaction);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to publish transaction", e);
-        }
+    // Waits at most timeout for room; returns false if the message was not enqueued
+    boolean offer(RawTransactionDTO transaction, long timeout, TimeUnit unit) throws InterruptedException;
+
+    RawTransactionDTO consume() throws InterruptedException;
+
+    /**
+     * Blocks for the first message, then collects more until the batch is full or maxWaitMillis has
+     * passed. An interrupt after the first message ends the wait early: the messages collected so far
+     * are returned with the thread's interrupt status set, so none are lost.
+     */
+    List<RawTransactionDTO> consumeBatch(int maxBatchSize, long maxWaitMillis) throws InterruptedException;
+
+    // Moves up to maxElements already available messages into batch without blocking; returns how many
+    int drainTo(Collection<? super RawTransactionDTO> batch, int maxElements);
+
+    /**
+     * Confirms that consumed messages have been fully processed. Durable implementations only move
+     * their committed offset past acknowledged messages, so anything consumed but never acknowledged
+     * is delivered again after a restart.
+     */
+    void acknowledge(List<RawTransactionDTO> transactions);
+
+    default void acknowledge(RawTransactionDTO transaction) {
+        acknowledge(List.of(transaction));
+    }
+
+    /**
+     * The queues the consumers read from, one consumer each. By default all of them share this queue;
+     * an implementation that has to keep one consumer per lane returns its lanes instead, whatever the
+     * requested count.
+     */
+    default List<TransactionQueue> consumerSources(int consumers) {
+        return Collections.nCopies(consumers, this);
     }
 
-    public RawTransactionDTO consume() throws InterruptedException {
-        return queue.take();
+    // Messages published but not yet consumed
+    int size();
+
+    // Most messages the queue can hold before publishers have to wait
+    default int capacity() {
+        return Integer.MAX_VALUE;
     }
 
-    public int size() {
-        return queue.size();
+    // How full the queue is, from 0 to 1
+    default double fillRatio() {
+        return (double) size() / capacity();
     }
 }
@@ -0,0 +1,63 @@
+package com.fintech.queue;
+
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits on {@link RingBufferTransactionQueue} when there is nothing to consume (or no
+ * room to publish). Nobody signals a waiter, so every strategy keeps polling; they differ in how much
+ * CPU they give up between polls in exchange for hand-off latency.
+ */
+public enum WaitStrategy {
+
+    // Lowest latency, but each waiting consumer keeps a core fully busy even when the queue is idle
+    BUSY_SPIN {
+        @Override
+        void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+
+    YIELD {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+
+    // Spins, then yields, then sleeps in short parks; close to idle CPU when the queue is empty
+    PARK {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    // attempt counts the consecutive empty polls so far, starting at zero
+    abstract void idle(int attempt);
+
+    // The attempt to pass next time; it stops growing once every strategy has reached its last phase,
+    // so a waiter that stays idle for a long time cannot overflow it back into spinning
+    static int nextAttempt(int attempt) {
+        return Math.min(attempt + 1, SPIN_TRIES + YIELD_TRIES);
+    }
+
+    // Accepts "busy-spin" as well as "BUSY_SPIN"
+    public static WaitStrategy fromName(String name) {
+        return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
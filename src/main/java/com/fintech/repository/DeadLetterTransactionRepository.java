@@ -0,0 +1,9 @@
+package com.fintech.repository;
+
+import com.fintech.entity.DeadLetterTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DeadLetterTransactionRepository extends JpaRepository<DeadLetterTransaction, Long> {
+}
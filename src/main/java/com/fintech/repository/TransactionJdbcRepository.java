@@ -0,0 +1,467 @@
+package com.fintech.repository;
+
+import com.fintech.entity.Transaction;
+import com.fintech.enums.Category;
+import com.fintech.enums.SourceType;
+import com.fintech.enums.Subcategory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC writes for the ingest paths. Inserts skip the JPA persistence context and let the
+ * database assign ids. A consumer batch goes out as one INSERT over {@code unnest} of per-column
+ * arrays, so it costs a single round trip however large it is. Every insert skips transaction ids
+ * that already exist ({@code ON CONFLICT DO NOTHING}) and reports what it actually inserted.
+ * Backfills use PostgreSQL COPY instead.
+ *
+ * Every insert also folds the rows it actually inserted into the daily and monthly
+ * {@code transaction_rollups}, in the same statement, so the rollups commit or roll back together
+ * with the transactions they count.
+ */
+@Repository
+public class TransactionJdbcRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionJdbcRepository.class);
+
+    private static final String COLUMNS = "transaction_id, client_id, account_number, source_type, description, " +
+            "amount, transaction_date, category, subcategory, merchant_name, created_at, updated_at";
+
+    // What a CTE named inserted has to return for ROLLUP_INSERTED to fold its rows into the rollups
+    private static final String INSERTED_COLUMNS =
+            "transaction_id, account_number, category, subcategory, amount, transaction_date";
+
+    private static final String ROLLUP_COLUMNS = "granularity, period_start, account_number, category, subcategory, " +
+            "transaction_count, total_amount, min_amount, max_amount";
+
+    // One row per (granularity, period, account, category, subcategory) over the rows of source
+    private static final String ROLLUP_SELECT =
+            "SELECT g.granularity, date_trunc(g.unit, s.transaction_date)::date, s.account_number, s.category, " +
+                    "s.subcategory, COUNT(*), SUM(s.amount), MIN(s.amount), MAX(s.amount) " +
+                    "FROM %s s CROSS JOIN (VALUES ('DAY', 'day'), ('MONTH', 'month')) AS g (granularity, unit) " +
+                    "GROUP BY 1, 2, 3, 4, 5";
+
+    // Sorted by key so concurrent batches lock the rollup rows they share in the same order, not into a deadlock
+    private static final String ROLLUP_INSERTED =
+            "rolled_up AS (" +
+                    "INSERT INTO transaction_rollups (" + ROLLUP_COLUMNS + ") " + ROLLUP_SELECT.formatted("inserted") +
+                    " ORDER BY 1, 2, 3, 4, 5 " +
+                    "ON CONFLICT (granularity, period_start, account_number, category, subcategory) DO UPDATE SET " +
+                    "transaction_count = transaction_rollups.transaction_count + EXCLUDED.transaction_count, " +
+                    "total_amount = transaction_rollups.total_amount + EXCLUDED.total_amount, " +
+                    "min_amount = LEAST(transaction_rollups.min_amount, EXCLUDED.min_amount), " +
+                    "max_amount = GREATEST(transaction_rollups.max_amount, EXCLUDED.max_amount))";
+
+    private static final String INSERT_SQL =
+            "WITH inserted AS (" +
+                    "INSERT INTO transactions (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (transaction_id) DO NOTHING " +
+                    "RETURNING " + INSERTED_COLUMNS + "), " +
+                    ROLLUP_INSERTED + " " +
+                    "SELECT COUNT(*) FROM inserted";
+
+    // One array per column up to merchant_name; created_at and updated_at are the same for the whole batch
+    private static final String INSERT_ALL_SQL =
+            "WITH inserted AS (" +
+                    "INSERT INTO transactions (" + COLUMNS + ") " +
+                    "SELECT *, ?::timestamp, ?::timestamp FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], " +
+                    "?::varchar[], ?::varchar[], ?::numeric[], ?::timestamp[], ?::varchar[], ?::varchar[], ?::varchar[]) " +
+                    "ON CONFLICT (transaction_id) DO NOTHING " +
+                    "RETURNING " + INSERTED_COLUMNS + "), " +
+                    ROLLUP_INSERTED + " " +
+                    "SELECT transaction_id FROM inserted";
+
+    private static final String EXISTING_IDS_SQL =
+            "SELECT transaction_id FROM transactions WHERE transaction_id = ANY(?)";
+
+    private static final String ALL_IDS_SQL = "SELECT transaction_id FROM transactions";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM transactions";
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS transactions_staging ON COMMIT DELETE ROWS AS " +
+                    "SELECT " + COLUMNS + " FROM transactions WITH NO DATA";
+
+    private static final String COPY_SQL =
+            "COPY transactions_staging (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_STAGING_SQL =
+            "WITH inserted AS (" +
+                    "INSERT INTO transactions (" + COLUMNS + ") SELECT " + COLUMNS + " FROM transactions_staging " +
+                    "ON CONFLICT (transaction_id) DO NOTHING " +
+                    "RETURNING " + INSERTED_COLUMNS + "), " +
+                    ROLLUP_INSERTED + " " +
+                    "SELECT transaction_id FROM inserted";
+
+    // Blocks the incremental upserts until the rebuild commits; they wait rather than update rows being replaced
+    private static final String LOCK_ROLLUPS_SQL = "LOCK TABLE transaction_rollups IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String DELETE_ROLLUPS_SQL = "DELETE FROM transaction_rollups";
+
+    private static final String REBUILD_ROLLUPS_SQL =
+            "INSERT INTO transaction_rollups (" + ROLLUP_COLUMNS + ") " + ROLLUP_SELECT.formatted("transactions");
+
+    private static final String ROLLUPS_EMPTY_SQL =
+            "SELECT NOT EXISTS (SELECT 1 FROM transaction_rollups) AND EXISTS (SELECT 1 FROM transactions)";
+
+    private static final String AGGREGATE_SQL =
+            "SELECT category, account_number, COUNT(*), SUM(amount) FROM transactions " +
+                    "GROUP BY category, account_number";
+
+    // Only what the in-memory analytical snapshot keeps
+    private static final String SNAPSHOT_SQL =
+            "SELECT account_number, source_type, category, subcategory, amount, transaction_date FROM transactions";
+
+    private static final int AGGREGATE_FETCH_SIZE = 10_000;
+
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    public TransactionJdbcRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Inserts the batch in one statement. Transactions whose id already exists, in the table or
+     * earlier in the batch, are skipped.
+     *
+     * @return the transactions that were actually inserted, in their original order
+     */
+    @Transactional
+    public List<Transaction> insertAll(List<Transaction> transactions) {
+        LocalDateTime now = LocalDateTime.now();
+        int size = transactions.size();
+        String[] transactionIds = new String[size];
+        String[] clientIds = new String[size];
+        String[] accountNumbers = new String[size];
+        String[] sourceTypes = new String[size];
+        String[] descriptions = new String[size];
+        BigDecimal[] amounts = new BigDecimal[size];
+        Timestamp[] transactionDates = new Timestamp[size];
+        String[] categories = new String[size];
+        String[] subcategories = new String[size];
+        String[] merchantNames = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            Transaction transaction = transactions.get(i);
+            transaction.setCreatedAt(now);
+            transaction.setUpdatedAt(now);
+            transactionIds[i] = transaction.getTransactionId();
+            clientIds[i] = transaction.getClientId();
+            accountNumbers[i] = transaction.getAccountNumber();
+            sourceTypes[i] = transaction.getSourceType().name();
+            descriptions[i] = transaction.getDescription();
+            amounts[i] = transaction.getAmount();
+            transactionDates[i] = Timestamp.valueOf(transaction.getTransactionDate());
+            categories[i] = transaction.getCategory().name();
+            subcategories[i] = transaction.getSubcategory().name();
+            merchantNames[i] = transaction.getMerchantName();
+        }
+
+        Set<String> insertedIds = new HashSet<>(jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(INSERT_ALL_SQL);
+                    ps.setTimestamp(1, Timestamp.valueOf(now));
+                    ps.setTimestamp(2, Timestamp.valueOf(now));
+                    ps.setArray(3, connection.createArrayOf("varchar", transactionIds));
+                    ps.setArray(4, connection.createArrayOf("varchar", clientIds));
+                    ps.setArray(5, connection.createArrayOf("varchar", accountNumbers));
+                    ps.setArray(6, connection.createArrayOf("varchar", sourceTypes));
+                    ps.setArray(7, connection.createArrayOf("varchar", descriptions));
+                    ps.setArray(8, connection.createArrayOf("numeric", amounts));
+                    ps.setArray(9, connection.createArrayOf("timestamp", transactionDates));
+                    ps.setArray(10, connection.createArrayOf("varchar", categories));
+                    ps.setArray(11, connection.createArrayOf("varchar", subcategories));
+                    ps.setArray(12, connection.createArrayOf("varchar", merchantNames));
+                    return ps;
+                },
+                (resultSet, rowNum) -> resultSet.getString(1)));
+
+        List<Transaction> inserted = new ArrayList<>(insertedIds.size());
+        for (Transaction transaction : transactions) {
+            // remove() so that only the first of two rows with the same id counts as inserted
+            if (insertedIds.remove(transaction.getTransactionId())) {
+                inserted.add(transaction);
+            }
+        }
+        return inserted;
+    }
+
+    // Returns false when a transaction with the same id already exists
+    public boolean insert(Transaction transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> inserted = jdbcTemplate.query(INSERT_SQL, ps -> bind(ps, transaction, now),
+                (resultSet, rowNum) -> resultSet.getLong(1));
+        return inserted.get(0) > 0;
+    }
+
+    /**
+     * Recomputes every rollup from the transactions table, for data that was loaded before rollups
+     * existed or outside the application. Inserts wait for the rebuild to commit, and then add to the
+     * rebuilt rows, so nothing is counted twice or missed.
+     *
+     * @return the number of rollup rows written
+     */
+    @Transactional
+    public long rebuildRollups() {
+        jdbcTemplate.execute(LOCK_ROLLUPS_SQL);
+        jdbcTemplate.update(DELETE_ROLLUPS_SQL);
+        return jdbcTemplate.update(REBUILD_ROLLUPS_SQL);
+    }
+
+    // True when transactions exist but no rollups do, as on the first start after rollups were introduced
+    public boolean rollupsMissing() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(ROLLUPS_EMPTY_SQL, Boolean.class));
+    }
+
+    public Set<String> findExistingTransactionIds(Collection<String> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(EXISTING_IDS_SQL);
+                    ps.setArray(1, connection.createArrayOf("varchar", transactionIds.toArray()));
+                    return ps;
+                },
+                (resultSet, rowNum) -> resultSet.getString(1)));
+    }
+
+    public long count() {
+        return jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+    }
+
+    // Streams every transaction id with a server-side cursor
+    @Transactional(readOnly = true)
+    public void forEachTransactionId(Consumer<String> handler) {
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(ALL_IDS_SQL);
+                    ps.setFetchSize(AGGREGATE_FETCH_SIZE);
+                    return ps;
+                },
+                resultSet -> {
+                    handler.accept(resultSet.getString(1));
+                });
+    }
+
+    /**
+     * Streams every transaction with a server-side cursor, for the in-memory analytical snapshot. Only
+     * the account number, source type, category, subcategory, amount and transaction date are set.
+     */
+    @Transactional(readOnly = true)
+    public void forEachTransaction(Consumer<Transaction> handler) {
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(SNAPSHOT_SQL);
+                    ps.setFetchSize(AGGREGATE_FETCH_SIZE);
+                    return ps;
+                },
+                resultSet -> {
+                    Transaction transaction = new Transaction();
+                    transaction.setAccountNumber(resultSet.getString(1));
+                    transaction.setSourceType(SourceType.valueOf(resultSet.getString(2)));
+                    transaction.setCategory(Category.valueOf(resultSet.getString(3)));
+                    transaction.setSubcategory(Subcategory.valueOf(resultSet.getString(4)));
+                    transaction.setAmount(resultSet.getBigDecimal(5));
+                    transaction.setTransactionDate(resultSet.getTimestamp(6).toLocalDateTime());
+                    handler.accept(transaction);
+                });
+    }
+
+    private void bind(PreparedStatement ps, Transaction transaction, LocalDateTime now) throws SQLException {
+        transaction.setCreatedAt(now);
+        transaction.setUpdatedAt(now);
+
+        ps.setString(1, transaction.getTransactionId());
+        ps.setString(2, transaction.getClientId());
+        ps.setString(3, transaction.getAccountNumber());
+        ps.setString(4, transaction.getSourceType().name());
+        ps.setString(5, transaction.getDescription());
+        ps.setBigDecimal(6, transaction.getAmount());
+        ps.setTimestamp(7, Timestamp.valueOf(transaction.getTransactionDate()));
+        ps.setString(8, transaction.getCategory().name());
+        ps.setString(9, transaction.getSubcategory().name());
+        ps.setString(10, transaction.getMerchantName());
+        ps.setTimestamp(11, Timestamp.valueOf(now));
+        ps.setTimestamp(12, Timestamp.valueOf(now));
+    }
+
+    /**
+     * Streams transactions into a temporary staging table with COPY and moves each chunk into
+     * {@code transactions} with {@code ON CONFLICT (transaction_id) DO NOTHING}. Every chunk is
+     * committed on its own, so memory and transaction size stay bounded however long the input is.
+     * The transactions each chunk actually inserted are reported to {@code insertedRows} once it has
+     * committed.
+     *
+     * @return the number of rows actually inserted; duplicates of existing transaction ids are skipped
+     */
+    public long copyInsert(Iterator<Transaction> transactions, int chunkSize, Consumer<Transaction> insertedRows) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING_SQL);
+                }
+
+                long inserted = 0;
+                List<Transaction> chunk = new ArrayList<>(chunkSize);
+                while (transactions.hasNext()) {
+                    chunk.clear();
+                    copyChunk(copyManager, transactions, chunkSize, chunk);
+                    Set<String> mergedIds = new HashSet<>();
+                    try (Statement statement = connection.createStatement();
+                         ResultSet resultSet = statement.executeQuery(MERGE_STAGING_SQL)) {
+                        while (resultSet.next()) {
+                            mergedIds.add(resultSet.getString(1));
+                        }
+                    }
+                    connection.commit();
+
+                    inserted += mergedIds.size();
+                    logger.debug("Copied chunk of {} rows, {} inserted", chunk.size(), mergedIds.size());
+                    for (Transaction transaction : chunk) {
+                        // remove() so that only the first of two rows with the same id counts as inserted
+                        if (mergedIds.remove(transaction.getTransactionId())) {
+                            insertedRows.accept(transaction);
+                        }
+                    }
+                }
+                return inserted;
+
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Bulk copy into transactions failed", e);
+        }
+    }
+
+    // Streams count and sum per (category, account) with a server-side cursor instead of loading every row
+    @Transactional(readOnly = true)
+    public void aggregateByCategoryAndAccount(AggregateRowHandler handler) {
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(AGGREGATE_SQL);
+                    ps.setFetchSize(AGGREGATE_FETCH_SIZE);
+                    return ps;
+                },
+                resultSet -> {
+                    AggregateRow row = toAggregateRow(resultSet);
+                    handler.handle(row.category(), row.accountNumber(), row.count(), row.totalAmount());
+                });
+    }
+
+    private void copyChunk(CopyManager copyManager, Iterator<Transaction> transactions, int chunkSize,
+                           List<Transaction> copied) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+        CopyIn copyIn = copyManager.copyIn(COPY_SQL);
+
+        try {
+            while (copied.size() < chunkSize && transactions.hasNext()) {
+                Transaction transaction = transactions.next();
+                appendCsvRow(buffer, transaction, now);
+                copied.add(transaction);
+                if (buffer.length() >= COPY_BUFFER_CHARS) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private void appendCsvRow(StringBuilder buffer, Transaction transaction, LocalDateTime now) {
+        transaction.setCreatedAt(now);
+        transaction.setUpdatedAt(now);
+
+        appendCsvText(buffer, transaction.getTransactionId()).append(',');
+        appendCsvText(buffer, transaction.getClientId()).append(',');
+        appendCsvText(buffer, transaction.getAccountNumber()).append(',');
+        buffer.append(transaction.getSourceType().name()).append(',');
+        appendCsvText(buffer, transaction.getDescription()).append(',');
+        buffer.append(transaction.getAmount().toPlainString()).append(',');
+        buffer.append(transaction.getTransactionDate()).append(',');
+        buffer.append(transaction.getCategory().name()).append(',');
+        buffer.append(transaction.getSubcategory().name()).append(',');
+        appendCsvText(buffer, transaction.getMerchantName()).append(',');
+        buffer.append(now).append(',');
+        buffer.append(now).append('\n');
+    }
+
+    // Non-null text is always quoted so that an empty string is not read back as NULL
+    private StringBuilder appendCsvText(StringBuilder buffer, String value) {
+        if (value == null) {
+            return buffer;
+        }
+
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        return buffer.append('"');
+    }
+
+    private AggregateRow toAggregateRow(ResultSet resultSet) throws SQLException {
+        return new AggregateRow(
+                Category.valueOf(resultSet.getString(1)),
+                resultSet.getString(2),
+                resultSet.getLong(3),
+                resultSet.getBigDecimal(4));
+    }
+
+    @FunctionalInterface
+    public interface AggregateRowHandler {
+        void handle(Category category, String accountNumber, long count, BigDecimal totalAmount);
+    }
+
+    private record AggregateRow(Category category, String accountNumber, long count, BigDecimal totalAmount) {
+    }
+}
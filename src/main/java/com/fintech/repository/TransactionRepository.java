@@ -1,19 +1,35 @@
 package com.fintech.repository;
 
+import com.fintech.dto.AccountSummaryDTO;
+import com.fintech.dto.TransactionSummaryDTO;
 import com.fintech.entity.Transaction;
 import com.fintech.enums.Category;
 import com.fintech.enums.SourceType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+    String FILTERS =
+            "(:category IS NULL OR t.category = :category) AND " +
+            "(:sourceType IS NULL OR t.sourceType = :sourceType) AND " +
+            "(:accountNumber IS NULL OR t.accountNumber = :accountNumber) AND " +
+            "(CAST(:startDate AS timestamp) IS NULL OR t.transactionDate >= :startDate) AND " +
+            "(CAST(:endDate AS timestamp) IS NULL OR t.transactionDate <= :endDate)";
+
     List<Transaction> findByCategory(Category category);
 
     List<Transaction> findByTransactionDateBetween(LocalDateTime startDate, LocalDateTime endDate);
@@ -34,17 +50,84 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             LocalDateTime endDate
     );
 
-    @Query("SELECT t FROM Transaction t WHERE " +
-            "(:category IS NULL OR t.category = :category) AND " +
-            "(:sourceType IS NULL OR t.sourceType = :sourceType) AND " +
-            "(:accountNumber IS NULL OR t.accountNumber = :accountNumber) AND " +
-            "(CAST(:startDate AS timestamp) IS NULL OR t.transactionDate >= :startDate) AND " +
-            "(CAST(:endDate AS timestamp) IS NULL OR t.transactionDate <= :endDate)")
-    List<Transaction> findByFilters(
+    @Query(value = "SELECT t FROM Transaction t WHERE " + FILTERS,
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE " + FILTERS)
+    Page<Transaction> findByFilters(
+            @Param("category") Category category,
+            @Param("sourceType") SourceType sourceType,
+            @Param("accountNumber") String accountNumber,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Pageable pageable
+    );
+
+    // Keyset pagination: rows strictly after the (transactionDate, id) position, newest first
+    @Query("SELECT t FROM Transaction t WHERE " + FILTERS + " AND " +
+            "(t.transactionDate < :afterDate OR (t.transactionDate = :afterDate AND t.id < :afterId)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    Slice<Transaction> findByFiltersBefore(
+            @Param("category") Category category,
+            @Param("sourceType") SourceType sourceType,
+            @Param("accountNumber") String accountNumber,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    // Keyset pagination: rows strictly after the (transactionDate, id) position, oldest first
+    @Query("SELECT t FROM Transaction t WHERE " + FILTERS + " AND " +
+            "(t.transactionDate > :afterDate OR (t.transactionDate = :afterDate AND t.id > :afterId)) " +
+            "ORDER BY t.transactionDate ASC, t.id ASC")
+    Slice<Transaction> findByFiltersAfter(
             @Param("category") Category category,
             @Param("sourceType") SourceType sourceType,
             @Param("accountNumber") String accountNumber,
             @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    // Forward-only cursor for exports; the caller must hold a transaction and close the stream
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE " + FILTERS + " ORDER BY t.transactionDate, t.id")
+    Stream<Transaction> streamByFilters(
+            @Param("category") Category category,
+            @Param("sourceType") SourceType sourceType,
+            @Param("accountNumber") String accountNumber,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    @Query("SELECT new com.fintech.dto.TransactionSummaryDTO(t.category, COUNT(t), SUM(t.amount)) " +
+            "FROM Transaction t WHERE " +
+            "(:sourceType IS NULL OR t.sourceType = :sourceType) AND " +
+            "(CAST(:startDate AS timestamp) IS NULL OR t.transactionDate >= :startDate) AND " +
+            "(CAST(:endDate AS timestamp) IS NULL OR t.transactionDate <= :endDate) " +
+            "GROUP BY t.category " +
+            "ORDER BY SUM(t.amount) DESC")
+    List<TransactionSummaryDTO> summarizeByCategory(
+            @Param("sourceType") SourceType sourceType,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    @Query("SELECT new com.fintech.dto.AccountSummaryDTO(t.accountNumber, COUNT(t), SUM(t.amount)) " +
+            "FROM Transaction t WHERE " +
+            "(:sourceType IS NULL OR t.sourceType = :sourceType) AND " +
+            "(CAST(:startDate AS timestamp) IS NULL OR t.transactionDate >= :startDate) AND " +
+            "(CAST(:endDate AS timestamp) IS NULL OR t.transactionDate <= :endDate) " +
+            "GROUP BY t.accountNumber " +
+            "ORDER BY t.accountNumber")
+    List<AccountSummaryDTO> summarizeByAccount(
+            @Param("sourceType") SourceType sourceType,
+            @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.fintech.repository;
+
+import com.fintech.dto.PeriodSummaryDTO;
+import com.fintech.entity.TransactionRollup;
+import com.fintech.enums.Category;
+import com.fintech.enums.PeriodGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Read side of the rollups; they are written by TransactionJdbcRepository
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, Long> {
+
+    @Query("SELECT new com.fintech.dto.PeriodSummaryDTO(r.periodStart, r.accountNumber, r.category, r.subcategory, " +
+            "r.transactionCount, r.totalAmount, r.minAmount, r.maxAmount) " +
+            "FROM TransactionRollup r WHERE r.granularity = :granularity AND " +
+            "(:accountNumber IS NULL OR r.accountNumber = :accountNumber) AND " +
+            "(:category IS NULL OR r.category = :category) AND " +
+            "(CAST(:startDate AS date) IS NULL OR r.periodStart >= :startDate) AND " +
+            "(CAST(:endDate AS date) IS NULL OR r.periodStart <= :endDate) " +
+            "ORDER BY r.periodStart, r.accountNumber, r.category, r.subcategory")
+    List<PeriodSummaryDTO> findPeriodSummaries(
+            @Param("granularity") PeriodGranularity granularity,
+            @Param("accountNumber") String accountNumber,
+            @Param("category") Category category,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
@@ -0,0 +1,70 @@
+package com.fintech.service;
+
+import com.fintech.dto.RawTransactionDTO;
+
+import java.math.BigDecimal;
+
+// Checks shared by the ingest paths that accept raw transactions from outside
+final class RawTransactionValidator {
+
+    // Limits of the columns of com.fintech.entity.Transaction, so nothing accepted here fails the insert
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
+    private static final int AMOUNT_PRECISION = 19;
+    private static final int AMOUNT_SCALE = 2;
+
+    private RawTransactionValidator() {
+    }
+
+    // Returns what is wrong with the transaction, such as "missing amount", or null when it can be saved
+    static String validate(RawTransactionDTO raw) {
+        String error = text("transactionId", raw.getTransactionId(), MAX_TEXT_LENGTH);
+        if (error == null) {
+            error = text("clientId", raw.getClientId(), MAX_TEXT_LENGTH);
+        }
+        if (error == null) {
+            error = text("accountNumber", raw.getAccountNumber(), MAX_TEXT_LENGTH);
+        }
+        if (error == null && raw.getSourceType() == null) {
+            error = "missing sourceType";
+        }
+        if (error == null) {
+            error = text("description", raw.getDescription(), MAX_DESCRIPTION_LENGTH);
+        }
+        if (error == null) {
+            error = amount(raw.getAmount());
+        }
+        if (error == null && raw.getTransactionDate() == null) {
+            error = "missing transactionDate";
+        }
+        return error;
+    }
+
+    private static String text(String field, String value, int maxLength) {
+        if (value == null) {
+            return "missing " + field;
+        }
+        if (value.isBlank()) {
+            return field + " is blank";
+        }
+        if (value.length() > maxLength) {
+            return field + " is longer than " + maxLength + " characters";
+        }
+        return null;
+    }
+
+    private static String amount(BigDecimal amount) {
+        if (amount == null) {
+            return "missing amount";
+        }
+        // Trailing zeros lose nothing, so 1.500 is as good as 1.50
+        BigDecimal significant = amount.stripTrailingZeros();
+        if (significant.scale() > AMOUNT_SCALE) {
+            return "amount has more than " + AMOUNT_SCALE + " decimal places";
+        }
+        if (significant.precision() - significant.scale() > AMOUNT_PRECISION - AMOUNT_SCALE) {
+            return "amount has more than " + (AMOUNT_PRECISION - AMOUNT_SCALE) + " digits before the decimal point";
+        }
+        return null;
+    }
+}
@@ -1,23 +1,22 @@
 package com.fintech.service;
 
+import com.fintech.aggregation.SummaryCache;
+import com.fintech.aggregation.TransactionAggregateStore;
 import com.fintech.dto.AccountSummaryDTO;
-import com.fintech.dto.AggregationResultDTO;
-import com.fintech.dto.RawTransactionDTO;
+import com.fintech.dto.PeriodSummaryDTO;
 import com.fintech.dto.TransactionSummaryDTO;
-import com.fintech.entity.Transaction;
 import com.fintech.enums.Category;
+import com.fintech.enums.PeriodGranularity;
+import com.fintech.enums.SourceType;
 import com.fintech.repository.TransactionRepository;
+import com.fintech.repository.TransactionRollupRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class TransactionAggregationService {
@@ -25,62 +24,62 @@ public class TransactionAggregationService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionAggregationService.class);
 
     private final TransactionRepository transactionRepository;
-
-    public TransactionAggregationService(TransactionRepository transactionRepository) {
+    private final TransactionAggregateStore aggregateStore;
+    private final TransactionRollupRepository rollupRepository;
+    private final SummaryCache summaryCache;
+
+    public TransactionAggregationService(
+            TransactionRepository transactionRepository,
+            TransactionAggregateStore aggregateStore,
+            TransactionRollupRepository rollupRepository,
+            SummaryCache summaryCache) {
         this.transactionRepository = transactionRepository;
+        this.aggregateStore = aggregateStore;
+        this.rollupRepository = rollupRepository;
+        this.summaryCache = summaryCache;
     }
 
-    public List<TransactionSummaryDTO> getSummaryByCategory() {
-        logger.info("Generating transaction summary by category");
-
-        List<Transaction> allTransactions = transactionRepository.findAll();
-
-        Map<Category, List<Transaction>> groupedByCategory = allTransactions.stream()
-                .collect(Collectors.groupingBy(Transaction::getCategory));
-
-        return groupedByCategory.entrySet().stream()
-                .map(entry -> {
-                    Category category = entry.getKey();
-                    List<Transaction> transactions = entry.getValue();
-
-                    BigDecimal totalAmount = transactions.stream()
-                            .map(Transaction::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    return new TransactionSummaryDTO(
-                            category,
-                            (long) transactions.size(),
-                            totalAmount
-                    );
-                })
-                .sorted((a, b) -> b.getTotalAmount().compareTo(a.getTotalAmount()))
-                .collect(Collectors.toList());
+    // Cached until a save changes them. Unfiltered summaries come from the in-memory totals;
+    // filtered ones are grouped in the database
+    public List<TransactionSummaryDTO> getSummaryByCategory(
+            LocalDateTime startDate, LocalDateTime endDate, SourceType sourceType) {
+        return summaryCache.get("by-category", null, null, () -> {
+            logger.info("Generating transaction summary by category");
+
+            if (isUnfiltered(startDate, endDate, sourceType) && aggregateStore.isReady()) {
+                return aggregateStore.summarizeByCategory();
+            }
+            return transactionRepository.summarizeByCategory(sourceType, startDate, endDate);
+        }, startDate, endDate, sourceType);
     }
 
-    public List<AccountSummaryDTO> getSummaryByAccount() {
-        logger.info("Generating transaction summary by account");
-
-        List<Transaction> allTransactions = transactionRepository.findAll();
-
-        Map<String, List<Transaction>> groupedByAccount = allTransactions.stream()
-                .collect(Collectors.groupingBy(Transaction::getAccountNumber));
+    public List<AccountSummaryDTO> getSummaryByAccount(
+            LocalDateTime startDate, LocalDateTime endDate, SourceType sourceType) {
+        return summaryCache.get("by-account", null, null, () -> {
+            logger.info("Generating transaction summary by account");
 
-        return groupedByAccount.entrySet().stream()
-                .map(entry -> {
-                    String accountNumber = entry.getKey();
-                    List<Transaction> transactions = entry.getValue();
+            if (isUnfiltered(startDate, endDate, sourceType) && aggregateStore.isReady()) {
+                return aggregateStore.summarizeByAccount();
+            }
+            return transactionRepository.summarizeByAccount(sourceType, startDate, endDate);
+        }, startDate, endDate, sourceType);
+    }
 
-                    BigDecimal totalAmount = transactions.stream()
-                            .map(Transaction::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // Served from the rollups, never from the transactions table
+    public List<PeriodSummaryDTO> getSummaryByPeriod(
+            PeriodGranularity granularity, LocalDate startDate, LocalDate endDate, String accountNumber, Category category) {
+        // A month is included when any of its days is in range
+        LocalDate from = granularity == PeriodGranularity.MONTH && startDate != null
+                ? startDate.withDayOfMonth(1)
+                : startDate;
+
+        return summaryCache.get("by-period", accountNumber, category, () -> {
+            logger.info("Generating transaction summary by {}", granularity);
+            return rollupRepository.findPeriodSummaries(granularity, accountNumber, category, from, endDate);
+        }, granularity, from, endDate);
+    }
 
-                    return new AccountSummaryDTO(
-                            accountNumber,
-                            (long) transactions.size(),
-                            totalAmount
-                    );
-                })
-                .sorted((a, b) -> a.getAccountNumber().compareTo(b.getAccountNumber()))
-                .collect(Collectors.toList());
+    private boolean isUnfiltered(LocalDateTime startDate, LocalDateTime endDate, SourceType sourceType) {
+        return startDate == null && endDate == null && sourceType == null;
     }
-}
\ No newline at end of file
+}
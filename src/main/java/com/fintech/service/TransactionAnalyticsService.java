@@ -0,0 +1,36 @@
+package com.fintech.service;
+
+import com.fintech.analytics.AnalyticsQuery;
+import com.fintech.analytics.TransactionColumnStore;
+import com.fintech.dto.AnalyticsResultDTO;
+import com.fintech.exception.AnalyticsUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class TransactionAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionAnalyticsService.class);
+
+    private final TransactionColumnStore columnStore;
+
+    public TransactionAnalyticsService(TransactionColumnStore columnStore) {
+        this.columnStore = columnStore;
+    }
+
+    public AnalyticsResultDTO groupBy(AnalyticsQuery query) {
+        if (query.startDate() != null && query.endDate() != null && query.startDate().isAfter(query.endDate())) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+        if (!columnStore.isReady()) {
+            throw new AnalyticsUnavailableException(
+                    "The columnar transaction snapshot is not loaded; set app.analytics.column-store.enabled to use it");
+        }
+
+        AnalyticsResultDTO result = columnStore.groupBy(query);
+        logger.info("Grouped {} transactions by {} into {} groups in {} ms",
+                result.getRowsScanned(), query.groupBy(), result.getGroups().size(), result.getElapsedMillis());
+        return result;
+    }
+}
@@ -0,0 +1,213 @@
+package com.fintech.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.dto.BatchIngestResultDTO;
+import com.fintech.dto.BatchItemResultDTO;
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.enums.SourceType;
+import com.fintech.queue.TransactionPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts raw transactions from external feeds and publishes them to the queue for the consumers.
+ * The payload is read token by token with Jackson's streaming parser, so only the current chunk of
+ * transactions is held in memory, and a bad field rejects just its own item instead of the request.
+ */
+@Service
+public class TransactionBatchIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBatchIngestService.class);
+
+    private final ObjectMapper objectMapper;
+    private final TransactionPublisher publisher;
+
+    @Value("${app.batch-ingest.chunk-size:1000}")
+    private int chunkSize;
+
+    public TransactionBatchIngestService(ObjectMapper objectMapper, TransactionPublisher publisher) {
+        this.objectMapper = objectMapper;
+        this.publisher = publisher;
+    }
+
+    // Accepts newline-delimited JSON or a single JSON array of RawTransactionDTO
+    public BatchIngestResultDTO ingest(InputStream input) {
+        long started = System.nanoTime();
+        Batch batch = new Batch();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            while (token != null && token != JsonToken.END_ARRAY) {
+                readItem(parser, token, batch);
+                token = parser.nextToken();
+            }
+
+            if (array && token == null) {
+                throw new IllegalArgumentException("Batch payload ends before its closing bracket");
+            }
+        } catch (IOException e) {
+            // Items before the malformed one may already be on the queue, so say how far we got
+            batch.publishChunk();
+            throw new IllegalArgumentException("Batch payload is malformed after " + batch.items.size() +
+                    " items (" + batch.accepted + " accepted): " + e.getMessage(), e);
+        }
+        batch.publishChunk();
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        int received = batch.items.size();
+        logger.info("Batch ingest finished: {} received, {} accepted, {} rejected in {} ms",
+                received, batch.accepted, received - batch.accepted, elapsedMillis);
+
+        return new BatchIngestResultDTO(received, batch.accepted, received - batch.accepted,
+                batch.queueFull, elapsedMillis, batch.items);
+    }
+
+    public long getRetryAfterSeconds() {
+        return publisher.getRetryAfterSeconds();
+    }
+
+    private void readItem(JsonParser parser, JsonToken token, Batch batch) throws IOException {
+        BatchItemResultDTO item = new BatchItemResultDTO(batch.items.size(), null, false, null);
+        batch.items.add(item);
+
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            item.setError("expected a JSON object");
+            return;
+        }
+
+        RawTransactionDTO raw = new RawTransactionDTO();
+        String error = readFields(parser, raw);
+        item.setTransactionId(raw.getTransactionId());
+
+        if (error == null) {
+            error = RawTransactionValidator.validate(raw);
+        }
+        if (error != null) {
+            item.setError(error);
+            return;
+        }
+
+        batch.add(raw, item);
+    }
+
+    // Reads the fields of one object; returns the first field error, or null when every field parsed
+    private static String readFields(JsonParser parser, RawTransactionDTO raw) throws IOException {
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            try {
+                switch (field) {
+                    case "transactionId" -> raw.setTransactionId(text(parser, value));
+                    case "clientId" -> raw.setClientId(text(parser, value));
+                    case "accountNumber" -> raw.setAccountNumber(text(parser, value));
+                    case "sourceType" -> raw.setSourceType(sourceType(parser, value));
+                    case "description" -> raw.setDescription(text(parser, value));
+                    case "amount" -> raw.setAmount(amount(parser, value));
+                    case "transactionDate" -> raw.setTransactionDate(dateTime(parser, value));
+                    default -> parser.skipChildren();
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                parser.skipChildren();
+                if (error == null) {
+                    error = "invalid " + field + ": " + e.getMessage();
+                }
+            }
+        }
+
+        return error;
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!value.isScalarValue()) {
+            throw new IllegalArgumentException("expected a string");
+        }
+        return parser.getText();
+    }
+
+    private static SourceType sourceType(JsonParser parser, JsonToken value) throws IOException {
+        String name = text(parser, value);
+        return name == null ? null : SourceType.valueOf(name);
+    }
+
+    private static BigDecimal amount(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        String text = text(parser, value);
+        return text == null ? null : new BigDecimal(text);
+    }
+
+    private static LocalDateTime dateTime(JsonParser parser, JsonToken value) throws IOException {
+        String text = text(parser, value);
+        return text == null ? null : LocalDateTime.parse(text);
+    }
+
+    // Valid transactions waiting to be published, plus the result of every item read so far
+    private class Batch {
+
+        private final List<BatchItemResultDTO> items = new ArrayList<>();
+        private final List<RawTransactionDTO> chunk = new ArrayList<>(chunkSize);
+        private final List<BatchItemResultDTO> chunkItems = new ArrayList<>(chunkSize);
+        private int accepted;
+        private boolean queueFull;
+
+        void add(RawTransactionDTO raw, BatchItemResultDTO item) {
+            if (queueFull) {
+                // Once the queue has turned items away, later ones would only jump ahead of them
+                item.setError("queue full");
+                return;
+            }
+
+            chunk.add(raw);
+            chunkItems.add(item);
+            if (chunk.size() >= chunkSize) {
+                publishChunk();
+            }
+        }
+
+        void publishChunk() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            int published = publisher.publishAll(chunk);
+            for (int i = 0; i < chunkItems.size(); i++) {
+                if (i < published) {
+                    chunkItems.get(i).setAccepted(true);
+                } else {
+                    chunkItems.get(i).setError("queue full");
+                }
+            }
+            accepted += published;
+            queueFull |= published < chunk.size();
+
+            chunk.clear();
+            chunkItems.clear();
+        }
+    }
+}
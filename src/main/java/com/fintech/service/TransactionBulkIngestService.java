@@ -0,0 +1,157 @@
+package com.fintech.service;
+
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.aggregation.SummaryCache;
+import com.fintech.aggregation.TransactionAggregateStore;
+import com.fintech.analytics.TransactionColumnStore;
+import com.fintech.dedup.TransactionDeduplicator;
+import com.fintech.dto.BulkIngestResultDTO;
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.entity.Transaction;
+import com.fintech.repository.TransactionJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class TransactionBulkIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBulkIngestService.class);
+
+    private final ObjectMapper objectMapper;
+    private final TransactionCategorizationService categorizationService;
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final TransactionAggregateStore aggregateStore;
+    private final SummaryCache summaryCache;
+    private final TransactionColumnStore columnStore;
+    private final TransactionDeduplicator deduplicator;
+
+    @Value("${app.bulk-ingest.chunk-size:50000}")
+    private int chunkSize;
+
+    public TransactionBulkIngestService(
+            ObjectMapper objectMapper,
+            TransactionCategorizationService categorizationService,
+            TransactionJdbcRepository transactionJdbcRepository,
+            TransactionAggregateStore aggregateStore,
+            SummaryCache summaryCache,
+            TransactionColumnStore columnStore,
+            TransactionDeduplicator deduplicator) {
+        this.objectMapper = objectMapper;
+        this.categorizationService = categorizationService;
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.aggregateStore = aggregateStore;
+        this.summaryCache = summaryCache;
+        this.columnStore = columnStore;
+        this.deduplicator = deduplicator;
+    }
+
+    // Accepts newline-delimited JSON or a single JSON array of RawTransactionDTO
+    public BulkIngestResultDTO ingest(InputStream input) {
+        logger.info("Starting bulk ingest (chunk size {})", chunkSize);
+        long started = System.nanoTime();
+
+        CategorizingIterator rows;
+        try {
+            MappingIterator<RawTransactionDTO> parsed =
+                    objectMapper.readerFor(RawTransactionDTO.class).readValues(input);
+            rows = new CategorizingIterator(parsed);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Bulk ingest payload could not be read: " + e.getMessage(), e);
+        }
+
+        long inserted = transactionJdbcRepository.copyInsert(rows, chunkSize, transaction -> {
+            aggregateStore.record(transaction);
+            summaryCache.recordSaved(transaction);
+            columnStore.append(transaction);
+            deduplicator.recordSaved(transaction);
+        });
+
+        long elapsedNanos = System.nanoTime() - started;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : rows.read * 1_000_000_000.0 / elapsedNanos;
+
+        BulkIngestResultDTO result = new BulkIngestResultDTO(
+                rows.read,
+                inserted,
+                rows.read - rows.rejected - inserted,
+                rows.rejected,
+                elapsedMillis,
+                Math.round(rowsPerSecond * 10) / 10.0
+        );
+
+        logger.info("Bulk ingest finished: {} rows read, {} inserted, {} duplicates skipped, {} rejected in {} ms ({} rows/s)",
+                result.getRowsRead(), result.getRowsInserted(), result.getDuplicatesSkipped(),
+                result.getRowsRejected(), result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    // Parses and categorizes lazily so the COPY stream pulls rows one at a time; bad rows are counted and skipped
+    private class CategorizingIterator implements Iterator<Transaction> {
+
+        private final MappingIterator<RawTransactionDTO> parsed;
+        private Transaction next;
+        private long read;
+        private long rejected;
+
+        CategorizingIterator(MappingIterator<RawTransactionDTO> parsed) {
+            this.parsed = parsed;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                try {
+                    if (!parsed.hasNextValue()) {
+                        return false;
+                    }
+                    read++;
+                    next = categorize(parsed.nextValue());
+                } catch (DatabindException e) {
+                    rejected++;
+                    logger.warn("Rejected unmappable row {}: {}", read, e.getOriginalMessage());
+                } catch (IOException e) {
+                    throw new IllegalArgumentException(
+                            "Bulk ingest payload is malformed after " + read + " rows: " + e.getMessage(), e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transaction current = next;
+            next = null;
+            return current;
+        }
+
+        private Transaction categorize(RawTransactionDTO raw) {
+            String invalid = RawTransactionValidator.validate(raw);
+            if (invalid != null) {
+                rejected++;
+                logger.warn("Rejected row {} ({}): {}", read, raw.getTransactionId(), invalid);
+                return null;
+            }
+
+            try {
+                return categorizationService.categorize(raw);
+            } catch (Exception e) {
+                rejected++;
+                logger.warn("Rejected row {} ({}): {}", read, raw.getTransactionId(), e.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -1,22 +1,60 @@
 package com.fintech.service;
 
+import com.fintech.categorization.CategorizationResult;
+import com.fintech.categorization.CategorizationRuleRegistry;
+import com.fintech.categorization.CompiledRuleSet;
+import com.fintech.categorization.MerchantNameExtractor;
 import com.fintech.dto.RawTransactionDTO;
 import com.fintech.entity.Transaction;
 import com.fintech.enums.Category;
 import com.fintech.enums.SourceType;
 import com.fintech.enums.Subcategory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.regex.Pattern;
 
 @Service
 public class TransactionCategorizationService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionCategorizationService.class);
 
+    private final CategorizationRuleRegistry ruleRegistry;
+
+    /*
+     * Categorizing depends only on the source type, the description and the sign of the amount, and
+     * the same merchants repeat constantly. Entries remember the rule set that produced them: a hit
+     * from an older rule set is recomputed, and the whole cache is dropped once a new one is seen.
+     */
+    private final Cache<CategorizationKey, CachedCategorization> categorizations;
+    private final Counter invalidations;
+    private volatile CompiledRuleSet cachedRuleSet;
+
+    public TransactionCategorizationService(
+            CategorizationRuleRegistry ruleRegistry,
+            @Value("${app.categorization.result-cache.max-size:100000}") long resultCacheSize,
+            MeterRegistry meterRegistry) {
+        this.ruleRegistry = ruleRegistry;
+        this.categorizations = Caffeine.newBuilder()
+                .maximumSize(resultCacheSize)
+                .recordStats()
+                .build();
+        this.cachedRuleSet = ruleRegistry.current();
+
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size for sizing the cache
+        CaffeineCacheMetrics.monitor(meterRegistry, categorizations, "transaction.categorizations");
+        this.invalidations = Counter.builder("transaction.categorization.cache.invalidations")
+                .description("Times the categorization cache was cleared because the rule set changed")
+                .register(meterRegistry);
+    }
+
     public Transaction categorize(RawTransactionDTO raw) {
         Transaction transaction = new Transaction();
         transaction.setTransactionId(raw.getTransactionId());
@@ -27,210 +65,55 @@ public class TransactionCategorizationService {
         transaction.setAmount(raw.getAmount());
         transaction.setTransactionDate(raw.getTransactionDate());
 
-        String description = raw.getDescription().toLowerCase();
-
-        // Priority 1: High priority exact matches for income
-        if (matchesPattern(description, "salary|wage|income|payment.*received")) {
-            transaction.setCategory(Category.INCOME);
-            transaction.setSubcategory(Subcategory.SALARY);
-            transaction.setMerchantName(extractMerchantName(raw.getDescription()));
-            logger.debug("Categorized as INCOME/SALARY: {}", raw.getDescription());
-            return transaction;
-        }
-
-        if (matchesPattern(description, "refund")) {
-            transaction.setCategory(Category.INCOME);
-            transaction.setSubcategory(Subcategory.REFUND);
-            transaction.setMerchantName(extractMerchantName(raw.getDescription()));
-            logger.debug("Categorized as INCOME/REFUND: {}", raw.getDescription());
-            return transaction;
-        }
-
-        // Priority 2: Source type rules
-        if (raw.getSourceType() == SourceType.BANK_FEE) {
-            return categorizeBankFee(transaction, description);
-        }
-
-        // Priority 3: Debit order categorization
-        if (raw.getSourceType() == SourceType.DEBIT_ORDER) {
-            return categorizeDebitOrder(transaction, description);
-        }
-
-        // Priority 4: Card transaction categorization
-        if (raw.getSourceType() == SourceType.CARD) {
-            return categorizeCardTransaction(transaction, description);
-        }
-
-        // Priority 5: Fallback rules based on amount
-        if (raw.getAmount().compareTo(BigDecimal.ZERO) > 0) {
-            transaction.setCategory(Category.INCOME);
-            transaction.setSubcategory(Subcategory.OTHER);
-        } else {
-            transaction.setCategory(Category.EXPENSES);
-            transaction.setSubcategory(Subcategory.OTHER);
-        }
-
-        transaction.setMerchantName(extractMerchantName(raw.getDescription()));
-        logger.debug("Categorized as fallback: {}", raw.getDescription());
+        CachedCategorization result = lookup(raw);
+        transaction.setCategory(result.category());
+        transaction.setSubcategory(result.subcategory());
+        transaction.setMerchantName(result.merchantName());
+        logger.debug("Categorized as {}/{}: {}", result.category(), result.subcategory(), raw.getDescription());
         return transaction;
     }
 
-    private Transaction categorizeBankFee(Transaction transaction, String description) {
-        transaction.setCategory(Category.BANK_FEES);
-
-        if (matchesPattern(description, "atm")) {
-            transaction.setSubcategory(Subcategory.ATM_FEE);
-        } else {
-            transaction.setSubcategory(Subcategory.SERVICE_FEE);
+    private CachedCategorization lookup(RawTransactionDTO raw) {
+        CompiledRuleSet ruleSet = ruleRegistry.current();
+        if (ruleSet != cachedRuleSet) {
+            invalidateFor(ruleSet);
         }
 
-        transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-        logger.debug("Categorized as BANK_FEES: {}", transaction.getDescription());
-        return transaction;
-    }
-
-    private Transaction categorizeDebitOrder(Transaction transaction, String description) {
-        // Insurance
-        if (matchesPattern(description, "insurance|discovery|old mutual|outsurance|medical aid")) {
-            transaction.setCategory(Category.INSURANCE);
-
-            if (matchesPattern(description, "medical|health")) {
-                transaction.setSubcategory(Subcategory.MEDICAL);
-            } else if (matchesPattern(description, "car|vehicle|auto")) {
-                transaction.setSubcategory(Subcategory.VEHICLE);
-            } else if (matchesPattern(description, "life")) {
-                transaction.setSubcategory(Subcategory.LIFE);
-            } else {
-                transaction.setSubcategory(Subcategory.OTHER);
-            }
+        int amountSignum = raw.getAmount() == null ? 0 : raw.getAmount().signum();
+        // The original description, not the lowercase one, because the merchant name keeps its casing
+        CategorizationKey key = new CategorizationKey(raw.getSourceType(), raw.getDescription(), amountSignum);
 
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as INSURANCE: {}", transaction.getDescription());
-            return transaction;
+        CachedCategorization cached = categorizations.get(key, k -> compute(ruleSet, k));
+        if (cached.ruleSet() != ruleSet) {
+            // Computed by a thread still holding the previous rule set
+            cached = compute(ruleSet, key);
+            categorizations.put(key, cached);
         }
+        return cached;
+    }
 
-        // Utilities
-        if (matchesPattern(description, "municipal|electricity|water|city of|city power|eskom|vodacom|mtn|telkom")) {
-            transaction.setCategory(Category.UTILITIES);
-
-            if (matchesPattern(description, "municipal|city of")) {
-                transaction.setSubcategory(Subcategory.MUNICIPAL);
-            } else if (matchesPattern(description, "electricity|eskom|city power")) {
-                transaction.setSubcategory(Subcategory.ELECTRICITY);
-            } else if (matchesPattern(description, "water")) {
-                transaction.setSubcategory(Subcategory.WATER);
-            } else {
-                transaction.setSubcategory(Subcategory.OTHER);
+    private void invalidateFor(CompiledRuleSet ruleSet) {
+        synchronized (categorizations) {
+            if (ruleSet != cachedRuleSet) {
+                categorizations.invalidateAll();
+                cachedRuleSet = ruleSet;
+                invalidations.increment();
+                logger.info("Cleared categorization cache for rules version {}", ruleSet.getVersion());
             }
-
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as UTILITIES: {}", transaction.getDescription());
-            return transaction;
         }
-
-        // Entertainment subscriptions
-        if (matchesPattern(description, "netflix|dstv|showmax|spotify|amazon prime|apple music|youtube|subscription|gym|virgin active")) {
-            transaction.setCategory(Category.ENTERTAINMENT);
-            transaction.setSubcategory(Subcategory.SUBSCRIPTION);
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as ENTERTAINMENT/SUBSCRIPTION: {}", transaction.getDescription());
-            return transaction;
-        }
-
-        // Default for debit orders
-        transaction.setCategory(Category.EXPENSES);
-        transaction.setSubcategory(Subcategory.OTHER);
-        transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-        logger.debug("Categorized as EXPENSES/OTHER: {}", transaction.getDescription());
-        return transaction;
     }
 
-    private Transaction categorizeCardTransaction(Transaction transaction, String description) {
-        // Groceries
-        if (matchesPattern(description, "woolworths|checkers|pick n pay|spar|shoprite|makro|game")) {
-            transaction.setCategory(Category.SHOPPING);
-            transaction.setSubcategory(Subcategory.GROCERIES);
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as SHOPPING/GROCERIES: {}", transaction.getDescription());
-            return transaction;
-        }
-
-        // Fuel
-        if (matchesPattern(description, "shell|engen|bp|sasol|caltex|total|garage|petrol|fuel")) {
-            transaction.setCategory(Category.TRANSPORT);
-            transaction.setSubcategory(Subcategory.FUEL);
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as TRANSPORT/FUEL: {}", transaction.getDescription());
-            return transaction;
-        }
-
-        // Rideshare
-        if (matchesPattern(description, "uber|bolt|taxify")) {
-            transaction.setCategory(Category.TRANSPORT);
-            transaction.setSubcategory(Subcategory.RIDESHARE);
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as TRANSPORT/RIDESHARE: {}", transaction.getDescription());
-            return transaction;
-        }
-
-        // Restaurants
-        if (matchesPattern(description, "nando's|spur|steers|mcdonald|kfc|burger king|wimpy|pizza|restaurant|cafe|eats")) {
-            transaction.setCategory(Category.FOOD_DRINK);
-            transaction.setSubcategory(Subcategory.DINING);
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as FOOD_DRINK/DINING: {}", transaction.getDescription());
-            return transaction;
-        }
-
-        // Fast food
-        if (matchesPattern(description, "mcdonald|kfc|burger|chicken|wings")) {
-            transaction.setCategory(Category.FOOD_DRINK);
-            transaction.setSubcategory(Subcategory.FAST_FOOD);
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as FOOD_DRINK/FAST_FOOD: {}", transaction.getDescription());
-            return transaction;
-        }
-
-        // Clothing and retail
-        if (matchesPattern(description, "mr price|edgars|truworths|woolworths.*fashion|h&m|zara|cotton on|clothing|fashion")) {
-            transaction.setCategory(Category.SHOPPING);
-            transaction.setSubcategory(Subcategory.CLOTHING);
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as SHOPPING/CLOTHING: {}", transaction.getDescription());
-            return transaction;
-        }
-
-        // Online shopping
-        if (matchesPattern(description, "takealot|amazon|ebay|online|exclusive books")) {
-            transaction.setCategory(Category.SHOPPING);
-            transaction.setSubcategory(Subcategory.OTHER);
-            transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-            logger.debug("Categorized as SHOPPING/OTHER: {}", transaction.getDescription());
-            return transaction;
-        }
-
-        // Default for card transactions
-        transaction.setCategory(Category.UNCATEGORIZED);
-        transaction.setSubcategory(Subcategory.OTHER);
-        transaction.setMerchantName(extractMerchantName(transaction.getDescription()));
-        logger.debug("Categorized as UNCATEGORIZED: {}", transaction.getDescription());
-        return transaction;
+    private static CachedCategorization compute(CompiledRuleSet ruleSet, CategorizationKey key) {
+        CategorizationResult result = ruleSet.categorize(
+                key.sourceType(), key.description().toLowerCase(), BigDecimal.valueOf(key.amountSignum()));
+        return new CachedCategorization(ruleSet, result.category(), result.subcategory(),
+                MerchantNameExtractor.extract(key.description()));
     }
 
-    private boolean matchesPattern(String text, String pattern) {
-        return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE).matcher(text).find();
+    private record CategorizationKey(SourceType sourceType, String description, int amountSignum) {
     }
 
-    private String extractMerchantName(String description) {
-        // Extract merchant name from description
-        // Remove common keywords and get the main merchant name
-        String merchant = description.replaceAll("(?i)(payment|debit order|subscription|from|to|transfer|-)", "").trim();
-
-        // Limit length
-        if (merchant.length() > 50) {
-            merchant = merchant.substring(0, 50);
-        }
-
-        return merchant.isEmpty() ? null : merchant;
+    private record CachedCategorization(CompiledRuleSet ruleSet, Category category, Subcategory subcategory,
+                                        String merchantName) {
     }
-}
\ No newline at end of file
+}
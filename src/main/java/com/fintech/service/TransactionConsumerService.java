@@ -1,18 +1,34 @@
 package com.fintech.service;
 
+import com.fintech.aggregation.SummaryCache;
+import com.fintech.aggregation.TransactionAggregateStore;
+import com.fintech.analytics.TransactionColumnStore;
+import com.fintech.dedup.TransactionDeduplicator;
 import com.fintech.dto.RawTransactionDTO;
 import com.fintech.entity.Transaction;
+import com.fintech.loadgen.LoadGenerator;
+import com.fintech.metrics.TransactionPipelineMetrics;
 import com.fintech.queue.TransactionQueue;
-import com.fintech.repository.TransactionRepository;
+import com.fintech.repository.TransactionJdbcRepository;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TransactionConsumerService {
@@ -21,74 +37,496 @@ public class TransactionConsumerService {
 
     private final TransactionQueue queue;
     private final TransactionCategorizationService categorizationService;
-    private final TransactionRepository transactionRepository;
+    private final TransactionDeduplicator deduplicator;
+    private final TransactionDeadLetterService deadLetters;
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final TransactionAggregateStore aggregateStore;
+    private final SummaryCache summaryCache;
+    private final TransactionColumnStore columnStore;
+    private final TransactionPipelineMetrics metrics;
+    private final LoadGenerator loadGenerator;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(4);
-    private final AtomicBoolean running = new AtomicBoolean(true);
+    // "batch" drains several messages per write, "single" saves each message on its own
+    @Value("${app.consumer.mode:batch}")
+    private String mode;
+
+    @Value("${app.consumer.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.consumer.batch-wait-ms:50}")
+    private long batchWaitMillis;
+
+    // "virtual" runs each consumer on its own virtual thread, "platform" on a fixed pool
+    @Value("${app.consumer.threads:virtual}")
+    private String threads;
+
+    @Value("${app.consumer.count:16}")
+    private int consumerCount;
+
+    // Caps concurrent writes so consumers wait here rather than on the connection pool
+    @Value("${app.consumer.db-concurrency:8}")
+    private int dbConcurrency;
+
+    @Value("${app.consumer.drain-timeout-ms:30000}")
+    private long drainTimeoutMillis;
+
+    // Backoff between attempts at a write that failed for a reason that may go away, doubling up to the maximum
+    @Value("${app.consumer.retry.initial-backoff-ms:100}")
+    private long retryInitialBackoffMillis;
+
+    @Value("${app.consumer.retry.max-backoff-ms:10000}")
+    private long retryMaxBackoffMillis;
+
+    private ExecutorService executor;
+    private Semaphore dbPermits;
+
+    private volatile ConsumerState state = ConsumerState.RUNNING;
+
+    // Consumers blocked waiting for a message; only these are interrupted when draining starts
+    private final Set<Thread> waitingConsumers = new HashSet<>();
+
+    private enum ConsumerState {
+        RUNNING,
+        // Intake has stopped: consume whatever is still queued without blocking, then exit
+        DRAINING,
+        // The drain deadline has passed: finish the current message or batch, then exit
+        STOPPED
+    }
 
     public TransactionConsumerService(
             TransactionQueue queue,
             TransactionCategorizationService categorizationService,
-            TransactionRepository transactionRepository) {
+            TransactionDeduplicator deduplicator,
+            TransactionDeadLetterService deadLetters,
+            TransactionJdbcRepository transactionJdbcRepository,
+            TransactionAggregateStore aggregateStore,
+            SummaryCache summaryCache,
+            TransactionColumnStore columnStore,
+            TransactionPipelineMetrics metrics,
+            LoadGenerator loadGenerator) {
         this.queue = queue;
         this.categorizationService = categorizationService;
-        this.transactionRepository = transactionRepository;
+        this.deduplicator = deduplicator;
+        this.deadLetters = deadLetters;
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.aggregateStore = aggregateStore;
+        this.summaryCache = summaryCache;
+        this.columnStore = columnStore;
+        this.metrics = metrics;
+        this.loadGenerator = loadGenerator;
     }
 
     @PostConstruct
     public void startConsumers() {
-        logger.info("Starting transaction consumers (4 threads)");
+        boolean batchMode = "batch".equalsIgnoreCase(mode);
+        boolean virtualThreads = "virtual".equalsIgnoreCase(threads);
+
+        // A partitioned queue gets exactly one consumer per lane, which is what keeps each account in order
+        List<TransactionQueue> sources = queue.consumerSources(consumerCount);
+
+        logger.info("Starting {} transaction consumers ({} threads, {} mode, {} concurrent writes)",
+                sources.size(), virtualThreads ? "virtual" : "platform", batchMode ? "batch" : "single", dbConcurrency);
 
-        for (int i = 0; i < 4; i++) {
+        dbPermits = new Semaphore(dbConcurrency);
+        executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("consumer-", 1).factory())
+                : Executors.newFixedThreadPool(sources.size(), Thread.ofPlatform().name("consumer-", 1).factory());
+
+        for (int i = 0; i < sources.size(); i++) {
             final int consumerId = i + 1;
-            executor.submit(() -> consumeTransactions(consumerId));
+            final TransactionQueue source = sources.get(i);
+            if (batchMode) {
+                executor.submit(() -> consumeTransactionBatches(consumerId, source));
+            } else {
+                executor.submit(() -> consumeTransactions(consumerId, source));
+            }
         }
     }
 
-    private void consumeTransactions(int consumerId) {
+    private void consumeTransactions(int consumerId, TransactionQueue source) {
         logger.info("Consumer {} started", consumerId);
+        Timer latency = metrics.consumerLatency(consumerId, false);
 
-        while (running.get()) {
+        while (state != ConsumerState.STOPPED) {
             try {
-                RawTransactionDTO rawTransaction = queue.consume();
-                logger.info("Consumer {} received transaction: {}",
+                RawTransactionDTO rawTransaction = nextTransaction(source);
+                if (rawTransaction == null) {
+                    break;
+                }
+                logger.debug("Consumer {} received transaction: {}",
                         consumerId, rawTransaction.getTransactionId());
 
-                processAndSave(rawTransaction);
+                // Acknowledged only once settled; a durable queue delivers anything else again after a restart
+                long started = System.nanoTime();
+                try {
+                    if (processAndSave(rawTransaction)) {
+                        source.acknowledge(rawTransaction);
+                    }
+                } finally {
+                    latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
 
             } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.warn("Consumer {} interrupted", consumerId);
-                break;
+                if (state == ConsumerState.RUNNING) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("Consumer {} interrupted", consumerId);
+                    break;
+                }
             } catch (Exception e) {
-                logger.error("Consumer {} failed to process transaction", consumerId, e);
+                logger.error("Consumer {} failed to process transaction; it is left unacknowledged", consumerId, e);
             }
         }
 
         logger.info("Consumer {} stopped", consumerId);
     }
 
-    private void processAndSave(RawTransactionDTO rawTransaction) {
+    private void consumeTransactionBatches(int consumerId, TransactionQueue source) {
+        logger.info("Consumer {} started (batch size {}, max wait {} ms)", consumerId, batchSize, batchWaitMillis);
+        Timer latency = metrics.consumerLatency(consumerId, true);
+
+        while (state != ConsumerState.STOPPED) {
+            try {
+                List<RawTransactionDTO> rawTransactions = nextBatch(source);
+                if (rawTransactions.isEmpty()) {
+                    break;
+                }
+                logger.debug("Consumer {} received batch of {} transactions", consumerId, rawTransactions.size());
+
+                long started = System.nanoTime();
+                try {
+                    if (processAndSaveBatch(rawTransactions)) {
+                        source.acknowledge(rawTransactions);
+                    }
+                } finally {
+                    latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+
+            } catch (InterruptedException e) {
+                if (state == ConsumerState.RUNNING) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("Consumer {} interrupted", consumerId);
+                    break;
+                }
+            } catch (Exception e) {
+                logger.error("Consumer {} failed to process transaction batch; it is left unacknowledged", consumerId, e);
+            }
+        }
+
+        logger.info("Consumer {} stopped", consumerId);
+    }
+
+    // Blocks while running; while draining returns null once the queue is empty
+    private RawTransactionDTO nextTransaction(TransactionQueue source) throws InterruptedException {
+        if (state == ConsumerState.RUNNING) {
+            markWaiting();
+            try {
+                return source.consume();
+            } finally {
+                markBusy();
+            }
+        }
+
+        List<RawTransactionDTO> remaining = new ArrayList<>(1);
+        source.drainTo(remaining, 1);
+        return remaining.isEmpty() ? null : remaining.get(0);
+    }
+
+    // Blocks while running; while draining returns an empty batch once the queue is empty
+    private List<RawTransactionDTO> nextBatch(TransactionQueue source) throws InterruptedException {
+        if (state == ConsumerState.RUNNING) {
+            markWaiting();
+            try {
+                return source.consumeBatch(batchSize, batchWaitMillis);
+            } finally {
+                markBusy();
+            }
+        }
+
+        List<RawTransactionDTO> remaining = new ArrayList<>(batchSize);
+        source.drainTo(remaining, batchSize);
+        return remaining;
+    }
+
+    private void markWaiting() throws InterruptedException {
+        synchronized (waitingConsumers) {
+            // Checked under the lock so a consumer cannot start waiting after the drain has interrupted the others
+            if (state != ConsumerState.RUNNING) {
+                throw new InterruptedException("Consumers are draining");
+            }
+            waitingConsumers.add(Thread.currentThread());
+        }
+    }
+
+    private void markBusy() {
+        synchronized (waitingConsumers) {
+            waitingConsumers.remove(Thread.currentThread());
+            // A drain interrupt that arrived just after a message was taken must not abort saving it
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Returns true once the transaction is settled: saved, skipped as a duplicate or dead-lettered.
+     * Returns false if the consumers stopped while the database was still failing.
+     */
+    private boolean processAndSave(RawTransactionDTO rawTransaction) throws Exception {
+        String transactionId = rawTransaction.getTransactionId();
+        Boolean duplicate = retryUntilSettled("Duplicate check of transaction " + transactionId,
+                () -> deduplicator.isDuplicate(rawTransaction));
+        if (duplicate == null) {
+            return false;
+        }
+        if (duplicate) {
+            logger.debug("Skipped duplicate transaction: {}", transactionId);
+            return true;
+        }
+
+        Transaction categorized;
+        try {
+            categorized = categorize(rawTransaction);
+        } catch (RuntimeException e) {
+            return deadLetter(rawTransaction, TransactionPipelineMetrics.STAGE_CATEGORIZE, e);
+        }
+
+        Boolean inserted;
         try {
-            Transaction categorized = categorizationService.categorize(rawTransaction);
-            Transaction saved = transactionRepository.save(categorized);
+            inserted = retryUntilSettled("Insert of transaction " + transactionId, () -> insert(categorized));
+        } catch (Exception e) {
+            return deadLetter(rawTransaction, TransactionPipelineMetrics.STAGE_SAVE, e);
+        }
+        if (inserted == null) {
+            return false;
+        }
+        if (!inserted) {
+            logger.debug("Skipped duplicate transaction: {}", transactionId);
+            return true;
+        }
+        recordSaved(categorized);
+
+        logger.debug("Saved categorized transaction: {} as {}/{}",
+                transactionId,
+                categorized.getCategory(),
+                categorized.getSubcategory());
+        return true;
+    }
+
+    // As processAndSave, for a whole batch: true once every transaction in it is settled
+    private boolean processAndSaveBatch(List<RawTransactionDTO> rawTransactions) throws Exception {
+        List<RawTransactionDTO> fresh = retryUntilSettled("Duplicate check of a batch",
+                () -> deduplicator.filterDuplicates(rawTransactions));
+        if (fresh == null) {
+            return false;
+        }
+
+        // Kept in step with categorized, so a row that cannot be saved is dead-lettered as it was published
+        List<RawTransactionDTO> accepted = new ArrayList<>(fresh.size());
+        List<Transaction> categorized = new ArrayList<>(fresh.size());
+        int deadLettered = 0;
+
+        for (RawTransactionDTO rawTransaction : fresh) {
+            try {
+                categorized.add(categorize(rawTransaction));
+                accepted.add(rawTransaction);
+            } catch (RuntimeException e) {
+                if (!deadLetter(rawTransaction, TransactionPipelineMetrics.STAGE_CATEGORIZE, e)) {
+                    return false;
+                }
+                deadLettered++;
+            }
+        }
+
+        int saved = 0;
+        if (!categorized.isEmpty()) {
+            List<Transaction> inserted;
+            try {
+                inserted = retryUntilSettled("Batch insert of " + categorized.size() + " transactions",
+                        () -> insertBatch(categorized));
+            } catch (Exception e) {
+                // The batch was rolled back as a whole; retry row by row so only the offending rows are set aside
+                logger.warn("Batch insert of {} transactions failed, retrying individually: {}",
+                        categorized.size(), e.getMessage());
+                inserted = new ArrayList<>(categorized.size());
+                int failed = saveIndividually(accepted, categorized, inserted);
+                if (failed < 0) {
+                    return false;
+                }
+                deadLettered += failed;
+            }
+            if (inserted == null) {
+                return false;
+            }
+            inserted.forEach(this::recordSaved);
+            saved = inserted.size();
+        }
+
+        // Duplicates were dropped by the dedup filter or, if they slipped past it, by the insert
+        logger.info("Saved batch of {} categorized transactions ({} duplicates skipped, {} dead-lettered)",
+                saved, rawTransactions.size() - saved - deadLettered, deadLettered);
+        return true;
+    }
+
+    /**
+     * Adds what was inserted to saved and returns how many were dead-lettered; duplicates are neither.
+     * Returns -1 if the consumers stopped while the database was still failing.
+     */
+    private int saveIndividually(List<RawTransactionDTO> rawTransactions, List<Transaction> transactions,
+                                 List<Transaction> saved) throws Exception {
+        int deadLettered = 0;
 
-            logger.info("Saved categorized transaction: {} as {}/{}",
-                    saved.getTransactionId(),
-                    saved.getCategory(),
-                    saved.getSubcategory());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            Boolean inserted;
+            try {
+                inserted = retryUntilSettled("Insert of transaction " + transaction.getTransactionId(),
+                        () -> insert(transaction));
+            } catch (Exception e) {
+                if (!deadLetter(rawTransactions.get(i), TransactionPipelineMetrics.STAGE_SAVE, e)) {
+                    return -1;
+                }
+                deadLettered++;
+                continue;
+            }
+            if (inserted == null) {
+                return -1;
+            }
+            if (inserted) {
+                saved.add(transaction);
+            }
+        }
 
+        return deadLettered;
+    }
+
+    private boolean insert(Transaction transaction) throws Exception {
+        acquireDbPermit();
+        try {
+            return metrics.saveTimer(false).recordCallable(() -> transactionJdbcRepository.insert(transaction));
         } catch (Exception e) {
-            logger.error("Failed to process transaction: {}",
-                    rawTransaction.getTransactionId(), e);
-            throw new RuntimeException("Transaction processing failed", e);
+            metrics.recordFailure(TransactionPipelineMetrics.STAGE_SAVE, e);
+            throw e;
+        } finally {
+            dbPermits.release();
         }
     }
 
+    private List<Transaction> insertBatch(List<Transaction> transactions) throws Exception {
+        acquireDbPermit();
+        try {
+            return metrics.saveTimer(true).recordCallable(() -> transactionJdbcRepository.insertAll(transactions));
+        } catch (Exception e) {
+            metrics.recordFailure(TransactionPipelineMetrics.STAGE_SAVE, e);
+            throw e;
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    // Returns false if the consumers stopped before the dead letter could be written
+    private boolean deadLetter(RawTransactionDTO rawTransaction, String stage, Exception failure) throws Exception {
+        return retryUntilSettled("Dead-lettering of transaction " + rawTransaction.getTransactionId(), () -> {
+            deadLetters.record(rawTransaction, stage, failure);
+            return Boolean.TRUE;
+        }) != null;
+    }
+
+    /**
+     * Runs action until it succeeds or fails permanently, in which case the failure is rethrown. Any
+     * other failure, such as the database being unreachable, is retried with a growing backoff.
+     * Returns null if the consumers are stopped first, which leaves the work unacknowledged.
+     */
+    private <T> T retryUntilSettled(String description, Callable<T> action) throws Exception {
+        long backoffMillis = retryInitialBackoffMillis;
+        while (true) {
+            try {
+                return action.call();
+            } catch (Exception e) {
+                if (isPermanent(e)) {
+                    throw e;
+                }
+                if (state == ConsumerState.STOPPED) {
+                    logger.warn("{} failed after the consumers stopped; leaving it unacknowledged: {}",
+                            description, e.getMessage());
+                    return null;
+                }
+                logger.warn("{} failed, retrying in {} ms: {}", description, backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, retryMaxBackoffMillis);
+            }
+        }
+    }
+
+    // Fails the same way however often it is retried, such as a value its column cannot hold
+    private static boolean isPermanent(Exception e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    private Transaction categorize(RawTransactionDTO rawTransaction) {
+        long started = System.nanoTime();
+        try {
+            return categorizationService.categorize(rawTransaction);
+        } catch (RuntimeException e) {
+            metrics.recordFailure(TransactionPipelineMetrics.STAGE_CATEGORIZE, e);
+            throw e;
+        } finally {
+            metrics.categorizeTimer().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recordSaved(Transaction transaction) {
+        aggregateStore.record(transaction);
+        summaryCache.recordSaved(transaction);
+        columnStore.append(transaction);
+        metrics.recordCategorized(transaction);
+        loadGenerator.recordSaved(transaction);
+    }
+
+    private void acquireDbPermit() {
+        try {
+            dbPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to write to the database", e);
+        }
+    }
+
+    /**
+     * Stops taking new work and lets the consumers empty the queue, for at most the drain timeout.
+     * Producers are already quiet by now: scheduled publishing is cancelled when the context closes
+     * and graceful server shutdown has stopped accepting requests.
+     */
     @PreDestroy
     public void shutdown() {
-        logger.info("Shutting down transaction consumers");
-        running.set(false);
-        executor.shutdownNow();
+        logger.info("Draining {} queued transactions (timeout {} ms)", queue.size(), drainTimeoutMillis);
+
+        synchronized (waitingConsumers) {
+            state = ConsumerState.DRAINING;
+            waitingConsumers.forEach(Thread::interrupt);
+        }
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                // Let in-flight saves finish rather than interrupting them halfway
+                state = ConsumerState.STOPPED;
+                if (!executor.awaitTermination(drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    executor.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+
+        int abandoned = queue.size();
+        if (abandoned > 0) {
+            logger.warn("Transaction consumers stopped with {} transactions abandoned in the queue", abandoned);
+        } else {
+            logger.info("Transaction consumers stopped with the queue drained");
+        }
     }
 }
@@ -0,0 +1,63 @@
+package com.fintech.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.dto.RawTransactionDTO;
+import com.fintech.entity.DeadLetterTransaction;
+import com.fintech.metrics.TransactionPipelineMetrics;
+import com.fintech.repository.DeadLetterTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the transactions that the consumers could never save, however often they retried, in the
+ * transaction_dead_letters table. Examples are a transaction that fails to categorize, or one holding
+ * a value its column cannot store. Once a transaction is recorded here it is acknowledged, so it no
+ * longer holds up a durable queue, and it can be corrected and published again by hand.
+ */
+@Service
+public class TransactionDeadLetterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionDeadLetterService.class);
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 2000;
+
+    private final DeadLetterTransactionRepository deadLetterRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionPipelineMetrics metrics;
+
+    public TransactionDeadLetterService(
+            DeadLetterTransactionRepository deadLetterRepository,
+            ObjectMapper objectMapper,
+            TransactionPipelineMetrics metrics) {
+        this.deadLetterRepository = deadLetterRepository;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+    }
+
+    public void record(RawTransactionDTO rawTransaction, String stage, Exception failure) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(rawTransaction);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize transaction " + rawTransaction.getTransactionId(), e);
+        }
+
+        String message = failure.getMessage();
+        if (message != null && message.length() > MAX_ERROR_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+        }
+
+        DeadLetterTransaction deadLetter = new DeadLetterTransaction();
+        deadLetter.setTransactionId(rawTransaction.getTransactionId());
+        deadLetter.setStage(stage);
+        deadLetter.setErrorType(failure.getClass().getName());
+        deadLetter.setErrorMessage(message);
+        deadLetter.setPayload(payload);
+        deadLetterRepository.save(deadLetter);
+
+        metrics.recordDeadLetter(stage);
+        logger.error("Dead-lettered transaction {}, which failed to {}", rawTransaction.getTransactionId(), stage, failure);
+    }
+}
@@ -0,0 +1,54 @@
+package com.fintech.service;
+
+import com.fintech.entity.Transaction;
+import com.fintech.enums.Category;
+import com.fintech.enums.SourceType;
+import com.fintech.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+
+    public TransactionExportService(TransactionRepository transactionRepository, EntityManager entityManager) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Feeds every matching transaction to {@code sink} in (transactionDate, id) order. Rows are read
+     * through a database cursor and detached once handled, so memory use does not grow with the
+     * size of the export.
+     *
+     * @return the number of exported transactions
+     */
+    @Transactional(readOnly = true)
+    public long export(Category category, SourceType sourceType, String accountNumber,
+                       LocalDateTime startDate, LocalDateTime endDate, Consumer<Transaction> sink) {
+        long exported = 0;
+
+        try (Stream<Transaction> transactions = transactionRepository.streamByFilters(
+                category, sourceType, accountNumber, startDate, endDate)) {
+            for (Transaction transaction : (Iterable<Transaction>) transactions::iterator) {
+                sink.accept(transaction);
+                entityManager.detach(transaction);
+                exported++;
+            }
+        }
+
+        logger.info("Exported {} transactions", exported);
+        return exported;
+    }
+}
@@ -2,9 +2,14 @@ package com.fintech.service;
 
 import com.fintech.dto.RawTransactionDTO;
 import com.fintech.enums.SourceType;
-import com.fintech.queue.TransactionQueue;
+import com.fintech.exception.QueueFullException;
+import com.fintech.loadgen.LoadGenerator;
+import com.fintech.queue.TransactionPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -18,44 +23,74 @@ public class TransactionProducerService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionProducerService.class);
 
-    private final TransactionQueue queue;
+    private final TransactionPublisher publisher;
+    private final LoadGenerator loadGenerator;
     private final Random random = new Random();
 
-    public TransactionProducerService(TransactionQueue queue) {
-        this.queue = queue;
+    // "sample" publishes a handful of sample transactions every 10 seconds, "load" runs the load generator
+    @Value("${app.producer.mode:sample}")
+    private String mode;
+
+    public TransactionProducerService(TransactionPublisher publisher, LoadGenerator loadGenerator) {
+        this.publisher = publisher;
+        this.loadGenerator = loadGenerator;
+    }
+
+    // Waits for the application to be ready, so the consumers are already running when the load arrives
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoadGeneration() {
+        if ("load".equalsIgnoreCase(mode)) {
+            loadGenerator.start();
+        }
     }
 
     @Scheduled(fixedRate = 10000, initialDelay = 5000) // Every 10 seconds
     public void publishSampleTransactions() {
+        if (!"sample".equalsIgnoreCase(mode)) {
+            return;
+        }
+        if (publisher.isAboveHighWatermark()) {
+            logger.info("Queue is above its high watermark, skipping this round of sample transactions");
+            return;
+        }
+
+        try {
+            publishSampleBatch();
+        } catch (QueueFullException e) {
+            logger.warn("Queue filled up while publishing sample transactions, skipping the rest of this round");
+        }
+    }
+
+    private void publishSampleBatch() {
         logger.info("Publishing sample transactions to queue");
 
         // Publish 2 EFT transactions
         for (int i = 0; i < 2; i++) {
             RawTransactionDTO eft = createEftTransaction();
-            queue.publish(eft);
+            publisher.publish(eft);
             logger.debug("Published EFT transaction: {}", eft.getTransactionId());
         }
 
         // Publish 1 bank fee
         RawTransactionDTO fee = createBankFee();
-        queue.publish(fee);
+        publisher.publish(fee);
         logger.debug("Published bank fee: {}", fee.getTransactionId());
 
         // Publish 2 debit orders
         for (int i = 0; i < 2; i++) {
             RawTransactionDTO debitOrder = createDebitOrder();
-            queue.publish(debitOrder);
+            publisher.publish(debitOrder);
             logger.debug("Published debit order: {}", debitOrder.getTransactionId());
         }
 
         // Publish 3 card transactions
         for (int i = 0; i < 3; i++) {
             RawTransactionDTO card = createCardTransaction();
-            queue.publish(card);
+            publisher.publish(card);
             logger.debug("Published card transaction: {}", card.getTransactionId());
         }
 
-        logger.info("Published batch of 8 transactions. Queue size: {}", queue.size());
+        logger.info("Published batch of 8 transactions. Queue size: {}", publisher.status().getSize());
     }
 
     private RawTransactionDTO createEftTransaction() {
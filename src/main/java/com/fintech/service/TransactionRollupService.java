@@ -0,0 +1,61 @@
+package com.fintech.service;
+
+import com.fintech.aggregation.SummaryCache;
+import com.fintech.dto.RollupRebuildResultDTO;
+import com.fintech.repository.TransactionJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rebuilds the daily and monthly rollups from the transactions table. Day to day they are kept up
+ * to date by the inserts themselves; a rebuild is for transactions that got into the table some other
+ * way, such as data loaded before rollups existed.
+ */
+@Service
+public class TransactionRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRollupService.class);
+
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final SummaryCache summaryCache;
+
+    @Value("${app.rollups.rebuild-if-missing:true}")
+    private boolean rebuildIfMissing;
+
+    public TransactionRollupService(TransactionJdbcRepository transactionJdbcRepository, SummaryCache summaryCache) {
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.summaryCache = summaryCache;
+    }
+
+    public RollupRebuildResultDTO rebuild() {
+        logger.info("Rebuilding transaction rollups; inserts wait until it finishes");
+        long started = System.currentTimeMillis();
+
+        long rows = transactionJdbcRepository.rebuildRollups();
+        summaryCache.invalidateAll();
+
+        long elapsedMillis = System.currentTimeMillis() - started;
+        logger.info("Rebuilt {} transaction rollup rows in {} ms", rows, elapsedMillis);
+        return new RollupRebuildResultDTO(rows, elapsedMillis);
+    }
+
+    // Backfills the rollups on the first start against a database that already holds transactions
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        if (!rebuildIfMissing) {
+            return;
+        }
+
+        try {
+            if (transactionJdbcRepository.rollupsMissing()) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to backfill transaction rollups; run POST /api/admin/rollups/rebuild to retry", e);
+        }
+    }
+}